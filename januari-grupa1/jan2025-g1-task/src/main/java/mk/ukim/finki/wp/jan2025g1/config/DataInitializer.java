@@ -1,22 +1,62 @@
 package mk.ukim.finki.wp.jan2025g1.config;
 
-import jakarta.annotation.PostConstruct;
+import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
 import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
 import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
 import mk.ukim.finki.wp.jan2025g1.service.ArchaeologicalSiteService;
 import mk.ukim.finki.wp.jan2025g1.service.SiteLocationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the database once the application is ready, with the sizes configured by the {@code seed.*} properties.
+ * Unless {@code seed.async} is false the seeding runs on its own thread, so startup does not wait for it and the
+ * rows are served as they are committed. Its progress is tracked by {@link SeedingProgress}.
+ * Without a {@code seed.random-seed} the rows follow the fixed formulas the tests rely on,
+ * with one every row is generated from the seed with realistic distributions instead.
+ */
 @Component
 public class DataInitializer {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
+    private static final HistoricalPeriod[] PERIODS = HistoricalPeriod.values();
+
     private final ArchaeologicalSiteService archaeologicalSiteService;
     private final SiteLocationService locationService;
+    private final int locationCount;
+    private final long rows;
+    private final Long randomSeed;
+    private final double locationSkew;
+    private final BatchInserter inserter;
+    private final SeedingProgress progress;
+    private final boolean async;
 
-    public DataInitializer(ArchaeologicalSiteService archaeologicalSiteService, SiteLocationService locationService) {
+    public DataInitializer(ArchaeologicalSiteService archaeologicalSiteService, SiteLocationService locationService, SeedingProgress progress,
+                           @Value("${seed.locations:3}") int locationCount,
+                           @Value("${seed.rows:10}") long rows,
+                           @Value("${seed.batch-size:1000}") int batchSize,
+                           @Value("${seed.threads:1}") int threads,
+                           @Value("${seed.random-seed:#{null}}") Long randomSeed,
+                           @Value("${seed.location-skew:0}") double locationSkew,
+                           @Value("${seed.async:true}") boolean async) {
         this.archaeologicalSiteService = archaeologicalSiteService;
         this.locationService = locationService;
+        this.locationCount = locationCount;
+        this.rows = rows;
+        this.randomSeed = randomSeed;
+        this.locationSkew = locationSkew;
+        this.inserter = new BatchInserter(batchSize, threads, randomSeed == null ? 0 : randomSeed);
+        this.progress = progress;
+        this.async = async;
     }
 
     private HistoricalPeriod randomizeHistoricalPeriod(int i) {
@@ -25,22 +65,63 @@ public class DataInitializer {
         if (i % 4 == 2) return HistoricalPeriod.MEDIEVAL;
         return HistoricalPeriod.RENAISSANCE;
     }
-    @PostConstruct
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!async) {
+            initData();
+            return;
+        }
+        Thread seeder = new Thread(this::initData, "data-initializer");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
     public void initData() {
-        for (int i = 1; i <= 3; i++) {
-            this.locationService.create("City " + i, "Country " + i);
+        this.progress.start(rows);
+        try {
+            seed();
+            this.progress.finish();
+        } catch (RuntimeException e) {
+            log.error("Seeding failed", e);
+            this.progress.fail(e);
+            if (!async) {
+                throw e;
+            }
         }
+    }
+
+    private void seed() {
+        List<SiteLocation> newLocations = new ArrayList<>();
+        for (int i = 1; i <= locationCount; i++) {
+            newLocations.add(new SiteLocation("City " + i, "Country " + i));
+        }
+        List<SiteLocation> locations = this.locationService.createAll(newLocations);
+        double[] locationWeights = BatchInserter.zipf(locations.size(), locationSkew);
 
-        List<SiteLocation> locations = this.locationService.listAll();
+        this.inserter.insert("archaeological sites", rows, (i, random) -> randomSeed == null
+                ? fixtureSite((int) i, locations)
+                : randomSite(i, random, locations, locationWeights), chunk -> {
+                    this.archaeologicalSiteService.createAll(chunk);
+                    this.progress.add(chunk.size());
+                });
+    }
 
-        for (int i = 1; i <= 10; i++) {
-            String name = "Archaeological Site " + i;
-            Double areaSize = 500 + (i * 100.0);
-            Double rating = 3.5 + (i * 0.2);
-            HistoricalPeriod period = this.randomizeHistoricalPeriod(i);
-            Long locationId = locations.get((i - 1) % locations.size()).getId();
+    private ArchaeologicalSite fixtureSite(int i, List<SiteLocation> locations) {
+        String name = "Archaeological Site " + i;
+        Double areaSize = 500 + (i * 100.0);
+        Double rating = 3.5 + (i * 0.2);
+        HistoricalPeriod period = this.randomizeHistoricalPeriod(i);
+        SiteLocation location = locations.get((i - 1) % locations.size());
+        return new ArchaeologicalSite(name, areaSize, rating, period, location);
+    }
 
-            this.archaeologicalSiteService.create(name, areaSize, rating, period, locationId);
-        }
+    private ArchaeologicalSite randomSite(long i, Random random, List<SiteLocation> locations, double[] locationWeights) {
+        String name = "Archaeological Site " + i;
+        // log-normal, most sites are small with a long tail of large ones around a median of ~1000
+        Double areaSize = Math.round(Math.exp(6.9 + random.nextGaussian()) * 10) / 10.0;
+        Double rating = Math.round((1 + random.nextDouble() * 4) * 10) / 10.0;
+        HistoricalPeriod period = PERIODS[random.nextInt(PERIODS.length)];
+        SiteLocation location = locations.get(BatchInserter.pick(locationWeights, random));
+        return new ArchaeologicalSite(name, areaSize, rating, period, location);
     }
 }
@@ -57,7 +57,7 @@ public class SecurityConfig {
                         .frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin)
                 )
                 .authorizeHttpRequests((requests) -> requests
-                        .requestMatchers("/", "/archaeological-sites")
+                        .requestMatchers("/", "/archaeological-sites", "/seeding")
                         .permitAll()
 //                        .requestMatchers("/admin/**").hasRole("ADMIN")
 
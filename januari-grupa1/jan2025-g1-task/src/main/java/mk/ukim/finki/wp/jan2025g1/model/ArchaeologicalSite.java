@@ -7,10 +7,25 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @Entity
+// location alone or with period, period with a rating range; the sort keys of the keyset windows end in the id.
+// The name filter is a case-insensitive "contains", whose leading wildcard no index on lower(name), e.g. one on
+// a generated column, could seek; the trigram index of the service narrows it to ids instead.
+@Table(indexes = {
+        @Index(name = "idx_archaeological_site_location_period", columnList = "location_id, period"),
+        @Index(name = "idx_archaeological_site_period_rating", columnList = "period, rating"),
+        @Index(name = "idx_archaeological_site_name", columnList = "name, id"),
+        @Index(name = "idx_archaeological_site_area_size", columnList = "area_size, id"),
+        @Index(name = "idx_archaeological_site_rating", columnList = "rating, id")
+})
+@NamedEntityGraph(name = "ArchaeologicalSite.location", attributeNodes = @NamedAttributeNode("location"))
 public class ArchaeologicalSite {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "archaeological_site_seq")
+    @SequenceGenerator(name = "archaeological_site_seq", allocationSize = 50)
     private Long id;
+    /** Incremented on every update, edit forms send it back so that concurrent edits are detected. */
+    @Version
+    private Long version;
     private String name;
     private Double areaSize;
     private boolean closed = false;
@@ -0,0 +1,16 @@
+package mk.ukim.finki.wp.jan2025g1.model.dto;
+
+import lombok.Value;
+import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
+
+import java.util.Map;
+
+/**
+ * Number of archaeological sites each filter option would return, given the rest of the current filter.
+ */
+@Value
+public class SiteFacets {
+    Map<HistoricalPeriod, Long> periodCounts;
+    /** Keyed by the id of the site location. */
+    Map<Long, Long> locationCounts;
+}
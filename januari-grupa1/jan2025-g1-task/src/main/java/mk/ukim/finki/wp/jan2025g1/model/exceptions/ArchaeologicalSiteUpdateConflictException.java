@@ -0,0 +1,14 @@
+package mk.ukim.finki.wp.jan2025g1.model.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the archaeological site that is being updated was changed by someone else since the version the update is based on.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ArchaeologicalSiteUpdateConflictException extends RuntimeException {
+    public ArchaeologicalSiteUpdateConflictException(Long id) {
+        super(String.format("The archaeological site with id %d was changed in the meantime", id));
+    }
+}
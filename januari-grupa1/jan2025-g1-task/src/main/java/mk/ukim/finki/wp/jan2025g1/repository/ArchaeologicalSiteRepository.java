@@ -1,6 +1,23 @@
 package mk.ukim.finki.wp.jan2025g1.repository;
 
 import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ArchaeologicalSiteRepository extends JpaSpecificationRepository<ArchaeologicalSite,Long> {
+
+    /**
+     * Streams the id, period, location id and name of every site, the columns the in-memory indexes are loaded from.
+     */
+    @Query("select s.id, s.period, l.id, s.name from ArchaeologicalSite s left join s.location l")
+    Stream<Object[]> streamIndexedColumns();
+
+    /**
+     * @return The current version of the archaeological site with the given id, empty when there is none.
+     */
+    @Query("select s.version from ArchaeologicalSite s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
@@ -2,12 +2,91 @@ package mk.ukim.finki.wp.jan2025g1.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.List;
+import java.util.Map;
+
 @NoRepositoryBean
 public interface JpaSpecificationRepository<T, ID> extends JpaRepository<T, ID> {
     Page<T> findAll(Specification<T> filter, Pageable pageable);
+
+    /**
+     * Saves the entities in one transaction, flushing and clearing the persistence context after every
+     * {@code batchSize} entities, so they are sent as JDBC batches and the context does not keep growing.
+     * The returned entities are detached.
+     */
+    <S extends T> List<S> saveAllInBatches(Iterable<S> entities, int batchSize);
+
+    /**
+     * Same as {@link #findAll(Specification, Pageable)}, but the page query is executed with the named
+     * entity graph as a fetch plan, so the associations it lists are loaded in the same select.
+     * The count query is left without the fetch plan.
+     *
+     * @param fetchPlan The name of an entity graph declared on the entity, or null for the default fetching.
+     */
+    Page<T> findAll(Specification<T> filter, Pageable pageable, String fetchPlan);
+
+    /**
+     * Same as {@link #findAll(Specification, Pageable)}, but without the count query.
+     * One row more than the page size is fetched to tell whether there is a next slice.
+     */
+    Slice<T> findSlice(Specification<T> filter, Pageable pageable);
+
+    /**
+     * Same as {@link #findSlice(Specification, Pageable)}, with the named entity graph used as a fetch plan.
+     *
+     * @param fetchPlan The name of an entity graph declared on the entity, or null for the default fetching.
+     */
+    Slice<T> findSlice(Specification<T> filter, Pageable pageable, String fetchPlan);
+
+    /**
+     * Keyset (seek) pagination: returns the rows that follow (or precede) the cursor in (sortKey, id) order,
+     * without an OFFSET scan and without a count query, so every window costs the same regardless of depth.
+     * Rows without a sort key value come after all the others, in id order.
+     *
+     * @param filter  The filter, can be null.
+     * @param sortKey The attribute to sort by, the id is used as a tie-breaker.
+     * @param cursor  A cursor from a previous window, or null for the first window.
+     * @param size      The number of rows in the window.
+     * @param fetchPlan The name of an entity graph declared on the entity, or null for the default fetching.
+     */
+    KeysetWindow<T> findWindow(Specification<T> filter, String sortKey, String cursor, int size, String fetchPlan);
+
+    /**
+     * Counts the rows matching the filter in a single grouped query.
+     *
+     * @param filter The filter, can be null.
+     * @param paths  The attributes to group by. Dotted paths, like "location.id", are supported.
+     * @return One row per group, holding the values of the grouped attributes in order, followed by the count as a Long.
+     */
+    List<Object[]> countGroupedBy(Specification<T> filter, String... paths);
+
+    /**
+     * Sets the attribute of every row matching the filter with a single set-based UPDATE, without loading the rows.
+     * The version attribute of the entity, if there is one, is incremented as well.
+     * The persistence context is flushed before and cleared after the update, so no managed entity is left stale.
+     *
+     * @param filter    The filter, can be null. It is given a throwaway query of the entity, so anything it sets
+     *                  on the query other than its predicate, like distinct or an ordering, has no effect.
+     * @param attribute The attribute to set.
+     * @param value     The new value of the attribute.
+     * @return The number of updated rows.
+     */
+    int updateAll(Specification<T> filter, String attribute, Object value);
+
+    /**
+     * Sets the given attributes of the row with the given id with a single conditional UPDATE, without loading it.
+     * When the entity has a version attribute it is incremented, and when a version is given the row is only
+     * updated if it still has that version, which is how concurrent edits are detected without locking.
+     *
+     * @param version The version the new values are based on, or null to update the row whatever its version.
+     * @param values  The new values by attribute name.
+     * @return The number of updated rows, 0 when there is no row with the id or it has a different version.
+     */
+    int updateById(ID id, Long version, Map<String, ?> values);
 }
 
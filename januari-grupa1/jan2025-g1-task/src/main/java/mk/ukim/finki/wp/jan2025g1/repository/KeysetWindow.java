@@ -0,0 +1,19 @@
+package mk.ukim.finki.wp.jan2025g1.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One window of a keyset (seek) paginated result. The cursors are opaque strings that should be
+ * passed back unchanged to fetch the following or the preceding window; they are null when there
+ * is nothing more in that direction.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetWindow<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final String previousCursor;
+}
@@ -0,0 +1,327 @@
+package mk.ukim.finki.wp.jan2025g1.repository.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import mk.ukim.finki.wp.jan2025g1.repository.JpaSpecificationRepository;
+import mk.ukim.finki.wp.jan2025g1.repository.KeysetWindow;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of all repositories extending {@link JpaSpecificationRepository}.
+ * It is registered as the repository base class in the application's {@code @EnableJpaRepositories}.
+ */
+public class BaseJpaSpecificationRepository<T, ID> extends SimpleJpaRepository<T, ID> implements JpaSpecificationRepository<T, ID> {
+
+    private static final String CURSOR_SEPARATOR = "|";
+    /** The sort value of a cursor is either this, for a row without one, or the value behind {@link #CURSOR_VALUE}. */
+    private static final String CURSOR_NULL = "-";
+    private static final String CURSOR_VALUE = "=";
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager entityManager;
+
+    public BaseJpaSpecificationRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public <S extends T> List<S> saveAllInBatches(Iterable<S> entities, int batchSize) {
+        List<S> saved = new ArrayList<>();
+        int pending = 0;
+        for (S entity : entities) {
+            if (entityInformation.isNew(entity)) {
+                entityManager.persist(entity);
+                saved.add(entity);
+            } else {
+                saved.add(entityManager.merge(entity));
+            }
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+
+    @Override
+    public Page<T> findAll(Specification<T> filter, Pageable pageable, String fetchPlan) {
+        TypedQuery<T> query = getQuery(filter, pageable);
+        applyFetchPlan(query, fetchPlan);
+        // readPage builds its own count query, so the fetch plan never reaches it
+        return pageable.isUnpaged()
+                ? new PageImpl<>(query.getResultList())
+                : readPage(query, getDomainClass(), pageable, filter);
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> filter, Pageable pageable) {
+        return findSlice(filter, pageable, null);
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> filter, Pageable pageable, String fetchPlan) {
+        TypedQuery<T> query = getQuery(filter, pageable.getSort());
+        applyFetchPlan(query, fetchPlan);
+        return readSlice(query, pageable);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public KeysetWindow<T> findWindow(Specification<T> filter, String sortKey, String cursor, int size, String fetchPlan) {
+        // the Hibernate builder can place the nulls in the order by, which plain JPA leaves to the database
+        HibernateCriteriaBuilder criteriaBuilder = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(getDomainClass());
+        Root<T> root = query.from(getDomainClass());
+        Path<Comparable> key = root.get(sortKey);
+        Path<Comparable> id = root.get(entityInformation.getIdAttribute().getName());
+        Position position = decodeCursor(cursor, sortKey, id.getJavaType(), key.getJavaType());
+        boolean backward = position != null && position.backward();
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (position != null) {
+            predicates.add(seek(criteriaBuilder, key, id, position));
+        }
+        // nulls last going forward, so nulls first going backward
+        query.select(root)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(backward
+                        ? List.of(criteriaBuilder.desc(key, true), criteriaBuilder.desc(id))
+                        : List.of(criteriaBuilder.asc(key, false), criteriaBuilder.asc(id)));
+
+        // One extra row tells whether there is anything beyond this window, so no count query is needed.
+        TypedQuery<T> typedQuery = entityManager.createQuery(query).setMaxResults(size + 1);
+        applyFetchPlan(typedQuery, fetchPlan);
+        List<T> content = new ArrayList<>(typedQuery.getResultList());
+        boolean hasMore = content.size() > size;
+        if (hasMore) {
+            content.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(content);
+        }
+        if (content.isEmpty()) {
+            return new KeysetWindow<>(content, null, null);
+        }
+
+        String next = hasMore || backward ? encodeCursor(content.get(content.size() - 1), sortKey, false) : null;
+        String previous = (backward ? hasMore : position != null) ? encodeCursor(content.get(0), sortKey, true) : null;
+        return new KeysetWindow<>(content, next, previous);
+    }
+
+    @Override
+    public List<Object[]> countGroupedBy(Specification<T> filter, String... paths) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<T> root = query.from(getDomainClass());
+
+        List<Expression<?>> groups = new ArrayList<>();
+        for (String path : paths) {
+            Path<?> expression = root;
+            for (String part : path.split("\\.")) {
+                expression = expression.get(part);
+            }
+            groups.add(expression);
+        }
+        List<Selection<?>> selections = new ArrayList<>(groups);
+        selections.add(criteriaBuilder.count(root));
+        query.multiselect(selections).groupBy(groups);
+
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int updateAll(Specification<T> filter, String attribute, Object value) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = criteriaBuilder.createCriteriaUpdate(getDomainClass());
+        Root<T> root = update.from(getDomainClass());
+        update.set(attribute, value);
+        entityInformation.getVersionAttribute().ifPresent(version -> {
+            Path<Long> current = root.get(version.getName());
+            update.set(current, criteriaBuilder.sum(current, 1L));
+        });
+
+        if (filter != null) {
+            // an update is not a CriteriaQuery, so like SimpleJpaRepository.delete(Specification) the filter is given
+            // a throwaway one, which also serves filters that build subqueries or set distinct and ordering on it
+            Predicate predicate = filter.toPredicate(root, criteriaBuilder.createQuery(getDomainClass()), criteriaBuilder);
+            if (predicate != null) {
+                update.where(predicate);
+            }
+        }
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int updateById(ID id, Long version, Map<String, ?> values) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = criteriaBuilder.createCriteriaUpdate(getDomainClass());
+        Root<T> root = update.from(getDomainClass());
+        for (Map.Entry<String, ?> value : values.entrySet()) {
+            update.set(value.getKey(), value.getValue());
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.equal(root.get(entityInformation.getIdAttribute().getName()), id));
+        entityInformation.getVersionAttribute().ifPresent(attribute -> {
+            Path<Long> current = root.get(attribute.getName());
+            update.set(current, criteriaBuilder.sum(current, 1L));
+            if (version != null) {
+                predicates.add(criteriaBuilder.equal(current, version));
+            }
+        });
+        update.where(predicates.toArray(Predicate[]::new));
+
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    /**
+     * Reads one row more than the page size, only to find out whether there is a next slice.
+     */
+    private static <S> Slice<S> readSlice(TypedQuery<S> query, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList());
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<S> content = new ArrayList<>(query.getResultList());
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private void applyFetchPlan(TypedQuery<?> query, String fetchPlan) {
+        if (fetchPlan != null) {
+            query.setHint(EntityGraph.EntityGraphType.FETCH.getKey(), entityManager.getEntityGraph(fetchPlan));
+        }
+    }
+
+    /**
+     * The rows after the position in (sortKey nulls last, id) order, or before it when going backward.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seek(CriteriaBuilder criteriaBuilder, Path<Comparable> key, Path<Comparable> id, Position position) {
+        Comparable keyValue = position.key();
+        Comparable idValue = position.id();
+        if (keyValue == null) {
+            Predicate sameKey = criteriaBuilder.and(criteriaBuilder.isNull(key),
+                    position.backward() ? criteriaBuilder.lessThan(id, idValue) : criteriaBuilder.greaterThan(id, idValue));
+            return position.backward() ? criteriaBuilder.or(criteriaBuilder.isNotNull(key), sameKey) : sameKey;
+        }
+        if (position.backward()) {
+            return criteriaBuilder.or(criteriaBuilder.lessThan(key, keyValue),
+                    criteriaBuilder.and(criteriaBuilder.equal(key, keyValue), criteriaBuilder.lessThan(id, idValue)));
+        }
+        return criteriaBuilder.or(criteriaBuilder.greaterThan(key, keyValue),
+                criteriaBuilder.and(criteriaBuilder.equal(key, keyValue), criteriaBuilder.greaterThan(id, idValue)),
+                criteriaBuilder.isNull(key));
+    }
+
+    private String encodeCursor(T entity, String sortKey, boolean backward) {
+        Object keyValue = new BeanWrapperImpl(entity).getPropertyValue(sortKey);
+        String raw = String.join(CURSOR_SEPARATOR,
+                backward ? "b" : "f",
+                sortKey,
+                String.valueOf(entityInformation.getId(entity)),
+                keyValue == null ? CURSOR_NULL : CURSOR_VALUE + keyValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The position the cursor points at, or null when the cursor is missing, malformed, holds values
+     * that are not of the id and sort key types or was issued for a different sort key, in which case
+     * the first window is returned.
+     */
+    @SuppressWarnings("rawtypes")
+    private static Position decodeCursor(String cursor, String sortKey, Class<? extends Comparable> idType, Class<? extends Comparable> keyType) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + CURSOR_SEPARATOR, 4);
+            if (parts.length != 4 || !parts[1].equals(sortKey)) {
+                return null;
+            }
+            Comparable id = convert(parts[2], idType);
+            if (id == null) {
+                return null;
+            }
+            if (parts[3].equals(CURSOR_NULL)) {
+                return new Position(parts[0].equals("b"), id, null);
+            }
+            if (!parts[3].startsWith(CURSOR_VALUE)) {
+                return null;
+            }
+            Comparable key = convert(parts[3].substring(CURSOR_VALUE.length()), keyType);
+            return key == null ? null : new Position(parts[0].equals("b"), id, key);
+        } catch (IllegalArgumentException | ConversionException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable convert(String value, Class<? extends Comparable> type) {
+        return DefaultConversionService.getSharedInstance().convert(value, type);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private record Position(boolean backward, Comparable id, Comparable key) {
+    }
+}
@@ -2,9 +2,14 @@ package mk.ukim.finki.wp.jan2025g1.service;
 
 import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
 import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
+import mk.ukim.finki.wp.jan2025g1.model.dto.SiteFacets;
+import mk.ukim.finki.wp.jan2025g1.model.exceptions.ArchaeologicalSiteUpdateConflictException;
 import mk.ukim.finki.wp.jan2025g1.model.exceptions.InvalidArchaeologicalSiteIdException;
+import mk.ukim.finki.wp.jan2025g1.repository.KeysetWindow;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ArchaeologicalSiteService {
@@ -33,8 +38,19 @@ public interface ArchaeologicalSiteService {
      */
     ArchaeologicalSite create(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId);
 
+    /**
+     * This method is used to create many archaeological sites at once. They are inserted in JDBC batches,
+     * so it should be used instead of calling create for every site when loading data in bulk.
+     *
+     * @param archaeologicalSites The archaeological sites to create, each with its location already set
+     * @return The archaeological sites that are created, with their generated ids.
+     */
+    List<ArchaeologicalSite> createAll(Collection<ArchaeologicalSite> archaeologicalSites);
+
     /**
      * This method is used to update an archaeological site and save it in the database.
+     * It is kept for the exam's tests, which edit without a version: the current version of the archaeological site is read
+     * and the update is conditional on it, like the overload taking the version. The edit form goes through that one.
      *
      * @param id         The id of the archaeological site that is being updated
      * @param name       The name of the archaeological site
@@ -47,6 +63,16 @@ public interface ArchaeologicalSiteService {
      */
     ArchaeologicalSite update(Long id, String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId);
 
+    /**
+     * Same as {@link #update(Long, String, Double, Double, HistoricalPeriod, Long)}, but the archaeological site
+     * is only updated if it still has the given version. The update is a single conditional statement,
+     * the archaeological site is not read before it.
+     *
+     * @param version The version of the archaeological site the new values are based on
+     * @throws ArchaeologicalSiteUpdateConflictException when the archaeological site has a different version
+     */
+    ArchaeologicalSite update(Long id, Long version, String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId);
+
     /**
      * This method deletes an archaeological site from the database.
      *
@@ -65,6 +91,19 @@ public interface ArchaeologicalSiteService {
      */
     ArchaeologicalSite close(Long id);
 
+    /**
+     * This method closes all open archaeological sites that match the given criteria, with a single update
+     * and without loading them. The criteria are the same as the ones of findPage.
+     *
+     * @param name       Filters archaeological sites whose names contain the specified text.
+     * @param areaSize   Filters archaeological sites bigger than the specified area size.
+     * @param rating     Filters archaeological sites with a rating greater than the specified value.
+     * @param period     Filters archaeological sites based on the historical period.
+     * @param locationId Filters archaeological sites by the specified locationId.
+     * @return The number of archaeological sites that were closed.
+     */
+    int closeAll(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId);
+
     /**
      * Returns a page of archaeological sites that match the given criteria.
      *
@@ -78,4 +117,43 @@ public interface ArchaeologicalSiteService {
      * @return The page of archaeological sites that match the given criteria.
      */
     Page<ArchaeologicalSite> findPage(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId, int pageNum, int pageSize);
+
+    /**
+     * Same as {@link #findPage}, but without counting the total number of matching archaeological sites.
+     * Only whether there is a next page is known.
+     *
+     * @return The slice of archaeological sites that match the given criteria.
+     */
+    Slice<ArchaeologicalSite> findSlice(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId, int pageNum, int pageSize);
+
+    /**
+     * Returns a window of archaeological sites that match the given criteria, using keyset pagination.
+     * Unlike findPage, the cost of a window does not grow with how deep into the result it is.
+     *
+     * @param name       Filters archaeological sites whose names contain the specified text.
+     * @param areaSize   Filters archaeological sites bigger than the specified area size.
+     * @param rating     Filters archaeological sites with a rating greater than the specified value.
+     * @param period     Filters archaeological sites based on the historical period.
+     * @param locationId Filters archaeological sites by the specified locationId.
+     * @param sort       The attribute to sort by (id, name, areaSize or rating), defaults to id.
+     * @param cursor     The cursor of the previous or next window, or null for the first window.
+     * @param pageSize   The number of items per window.
+     * @return The window of archaeological sites together with the cursors of its neighbouring windows.
+     */
+    KeysetWindow<ArchaeologicalSite> findWindow(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId, String sort, String cursor, int pageSize);
+
+    /**
+     * Counts, for every historical period and every location, the archaeological sites that would be returned
+     * if that option was selected while keeping the rest of the given criteria.
+     * When period and location are the only criteria, the counts come from the in-memory indexes,
+     * otherwise from a single grouped query.
+     *
+     * @param name       Filters archaeological sites whose names contain the specified text.
+     * @param areaSize   Filters archaeological sites bigger than the specified area size.
+     * @param rating     Filters archaeological sites with a rating greater than the specified value.
+     * @param period     The selected historical period, applied to the location counts only.
+     * @param locationId The selected location, applied to the period counts only.
+     * @return The counts per period and per location id.
+     */
+    SiteFacets findFacets(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId);
 }
@@ -3,6 +3,7 @@ package mk.ukim.finki.wp.jan2025g1.service;
 import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
 import mk.ukim.finki.wp.jan2025g1.model.exceptions.InvalidSiteLocationIdException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SiteLocationService {
@@ -27,4 +28,12 @@ public interface SiteLocationService {
      * @return The location that is created. The id should be generated when the location is created.
      */
     SiteLocation create(String city, String country);
+
+    /**
+     * This method is used to create many locations at once, in a single transaction.
+     *
+     * @param locations The locations to create
+     * @return The locations that are created, in the same order, with their generated ids.
+     */
+    List<SiteLocation> createAll(Collection<SiteLocation> locations);
 }
@@ -4,85 +4,316 @@ import jdk.dynalink.support.AbstractRelinkableCallSite;
 import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
 import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
 import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
+import mk.ukim.finki.wp.jan2025g1.model.dto.SiteFacets;
+import mk.ukim.finki.wp.jan2025g1.model.exceptions.ArchaeologicalSiteUpdateConflictException;
 import mk.ukim.finki.wp.jan2025g1.model.exceptions.InvalidArchaeologicalSiteIdException;
 import mk.ukim.finki.wp.jan2025g1.repository.ArchaeologicalSiteRepository;
+import mk.ukim.finki.wp.jan2025g1.repository.KeysetWindow;
 import mk.ukim.finki.wp.jan2025g1.service.ArchaeologicalSiteService;
 import mk.ukim.finki.wp.jan2025g1.service.SiteLocationService;
+import mk.ukim.finki.wp.jan2025g1.service.index.BitmapIndex;
+import mk.ukim.finki.wp.jan2025g1.service.index.TrigramIndex;
+import mk.ukim.finki.wp.jan2025g1.service.version.DataVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static mk.ukim.finki.wp.jan2025g1.service.FieldFilterSpecification.*;
 
 @Service
 public class ArchaeologicalSiteServiceImpl implements ArchaeologicalSiteService {
+    private static final Set<String> SORT_KEYS = Set.of("id", "name", "areaSize", "rating");
+    /** The list page renders the location of every row, so it is fetched in the same select. */
+    private static final String LIST_FETCH_PLAN = "ArchaeologicalSite.location";
+
     private final ArchaeologicalSiteRepository archaeologicalSiteRepository;
     private final SiteLocationService siteLocationService;
+    private final TrigramIndex nameIndex;
+    private final DataVersion dataVersion;
+    private final int batchSize;
+    private final int maxIndexedIds;
+    private final BitmapIndex<HistoricalPeriod> periodIndex = new BitmapIndex<>();
+    private final BitmapIndex<Long> locationIndex = new BitmapIndex<>();
+    /**
+     * Set once {@link #loadIndexes()} is done. The server takes requests before that, and until then the indexes
+     * are missing sites, so they are not used and the filters fall back to the column predicates.
+     */
+    private volatile boolean indexesLoaded;
 
-    public ArchaeologicalSiteServiceImpl(ArchaeologicalSiteRepository archaeologicalSiteRepository, SiteLocationService siteLocationService) {
+    public ArchaeologicalSiteServiceImpl(ArchaeologicalSiteRepository archaeologicalSiteRepository, SiteLocationService siteLocationService, TrigramIndex nameIndex, DataVersion dataVersion,
+                                         @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                                         @Value("${indexes.max-ids:1000}") int maxIndexedIds) {
         this.archaeologicalSiteRepository = archaeologicalSiteRepository;
         this.siteLocationService = siteLocationService;
+        this.nameIndex = nameIndex;
+        this.dataVersion = dataVersion;
+        this.batchSize = batchSize;
+        this.maxIndexedIds = maxIndexedIds;
+    }
+
+    /**
+     * Loads the indexes from the sites already in the database, which they would miss after a restart since
+     * they are otherwise only filled by the writes of this service. It runs ahead of the startup seeding.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void loadIndexes() {
+        try (Stream<Object[]> rows = archaeologicalSiteRepository.streamIndexedColumns()) {
+            rows.forEach(row -> {
+                Long id = (Long) row[0];
+                periodIndex.putIfAbsent(id, (HistoricalPeriod) row[1]);
+                locationIndex.putIfAbsent(id, (Long) row[2]);
+                nameIndex.putIfAbsent(id, (String) row[3]);
+            });
+        }
+        indexesLoaded = true;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ArchaeologicalSite> listAll() {
         return archaeologicalSiteRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ArchaeologicalSite findById(Long id) {
         return archaeologicalSiteRepository.findById(id).orElseThrow(InvalidArchaeologicalSiteIdException::new);
     }
 
     @Override
+    @Transactional
     public ArchaeologicalSite create(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId) {
         SiteLocation siteLocation = siteLocationService.findById(locationId);
-        return archaeologicalSiteRepository.save( new ArchaeologicalSite(name,areaSize,rating,period,siteLocation));
+        ArchaeologicalSite archaeologicalSite = archaeologicalSiteRepository.save( new ArchaeologicalSite(name,areaSize,rating,period,siteLocation));
+        afterCommit(() -> index(archaeologicalSite));
+        dataVersion.bump();
+        return archaeologicalSite;
     }
 
     @Override
+    @Transactional
+    public List<ArchaeologicalSite> createAll(Collection<ArchaeologicalSite> archaeologicalSites) {
+        List<ArchaeologicalSite> saved = archaeologicalSiteRepository.saveAllInBatches(archaeologicalSites, batchSize);
+        afterCommit(() -> saved.forEach(this::index));
+        dataVersion.bump();
+        return saved;
+    }
+
+    @Override
+    @Transactional
     public ArchaeologicalSite update(Long id, String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId) {
+        // only the exam's tests edit without a version, the edit form always sends it; the current one is read
+        // in this transaction, so the update still fails on a write landing between the read and the update
+        Long version = archaeologicalSiteRepository.findVersionById(id).orElseThrow(InvalidArchaeologicalSiteIdException::new);
+        return update(id, version, name, areaSize, rating, period, locationId);
+    }
+
+    @Override
+    @Transactional
+    public ArchaeologicalSite update(Long id, Long version, String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId) {
+        Objects.requireNonNull(version, "version");
         SiteLocation siteLocation = siteLocationService.findById(locationId);
-        ArchaeologicalSite archaeologicalSite = archaeologicalSiteRepository.findById(id).orElseThrow(InvalidArchaeologicalSiteIdException::new);
-        archaeologicalSite.setName(name);
-        archaeologicalSite.setAreaSize(areaSize);
-        archaeologicalSite.setRating(rating);
-        archaeologicalSite.setPeriod(period);
-        archaeologicalSite.setLocation(siteLocation);
-        return archaeologicalSiteRepository.save(archaeologicalSite);
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", name);
+        values.put("areaSize", areaSize);
+        values.put("rating", rating);
+        values.put("period", period);
+        values.put("location", siteLocation);
+        if (archaeologicalSiteRepository.updateById(id, version, values) == 0) {
+            // nothing was updated, either the site is gone or someone else updated it first
+            if (!archaeologicalSiteRepository.existsById(id)) {
+                throw new InvalidArchaeologicalSiteIdException();
+            }
+            throw new ArchaeologicalSiteUpdateConflictException(id);
+        }
+        ArchaeologicalSite archaeologicalSite = findById(id);
+        afterCommit(() -> index(archaeologicalSite));
+        dataVersion.bump();
+        return archaeologicalSite;
     }
 
     @Override
+    @Transactional
     public ArchaeologicalSite delete(Long id) {
         ArchaeologicalSite archaeologicalSite = archaeologicalSiteRepository.findById(id).orElseThrow(InvalidArchaeologicalSiteIdException::new);
         archaeologicalSiteRepository.delete(archaeologicalSite);
+        afterCommit(() -> {
+            nameIndex.remove(id);
+            periodIndex.remove(id);
+            locationIndex.remove(id);
+        });
+        dataVersion.bump();
         return  archaeologicalSite;
     }
 
     @Override
+    @Transactional
     public ArchaeologicalSite close(Long id) {
         ArchaeologicalSite archaeologicalSite = archaeologicalSiteRepository.findById(id).orElseThrow(InvalidArchaeologicalSiteIdException::new);
+        // the site is managed, the change is written by dirty checking when the transaction commits
         archaeologicalSite.setClosed(true);
-        return archaeologicalSiteRepository.save(archaeologicalSite);
+        dataVersion.bump();
+        return archaeologicalSite;
     }
 
     @Override
+    @Transactional
+    public int closeAll(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId) {
+        // sites that are already closed are left out, so only the ones that changed are counted;
+        // the ids narrowed down by the indexes end up as an IN list of the UPDATE, at most indexes.max-ids of them
+        int closed = this.archaeologicalSiteRepository.updateAll(
+                Specification.allOf(
+                        filter(name, areaSize, rating, period, locationId),
+                        filterEqualsV(ArchaeologicalSite.class, "closed", false)),
+                "closed",
+                true);
+        if (closed > 0) {
+            dataVersion.bump();
+        }
+        return closed;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<ArchaeologicalSite> findPage(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId, int pageNum, int pageSize) {
-        Specification<ArchaeologicalSite> specification = Specification.allOf(
+        return this.archaeologicalSiteRepository.findAll(
+                filter(name, areaSize, rating, period, locationId),
+                PageRequest.of(pageNum, pageSize),
+                LIST_FETCH_PLAN);
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ArchaeologicalSite> findSlice(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId, int pageNum, int pageSize) {
+        return this.archaeologicalSiteRepository.findSlice(
+                filter(name, areaSize, rating, period, locationId),
+                PageRequest.of(pageNum, pageSize),
+                LIST_FETCH_PLAN);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetWindow<ArchaeologicalSite> findWindow(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId, String sort, String cursor, int pageSize) {
+        return this.archaeologicalSiteRepository.findWindow(
+                filter(name, areaSize, rating, period, locationId),
+                sort != null && SORT_KEYS.contains(sort) ? sort : "id",
+                cursor,
+                pageSize,
+                LIST_FETCH_PLAN);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SiteFacets findFacets(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId) {
+        Map<HistoricalPeriod, Long> periodCounts = new EnumMap<>(HistoricalPeriod.class);
+        if (indexesLoaded && (name == null || name.isEmpty()) && areaSize == null && rating == null) {
+            // each facet is the AND of the other one's selection with every bitmap of its own, as with the query below
+            periodCounts.putAll(periodIndex.count(locationIndex.and(null, locationId)));
+            return new SiteFacets(periodCounts, locationIndex.count(periodIndex.and(null, period)));
+        }
+        Map<Long, Long> locationCounts = new HashMap<>();
+        // the name and range criteria have no bitmaps, so the sites are grouped by (period, location) without
+        // those two criteria; each facet is then folded under the other one's selection, so an option never
+        // counts against its own current value
+        List<Object[]> groups = this.archaeologicalSiteRepository.countGroupedBy(
+                filter(name, areaSize, rating, null, null), "period", "location.id");
+        for (Object[] group : groups) {
+            HistoricalPeriod groupPeriod = (HistoricalPeriod) group[0];
+            Long groupLocationId = (Long) group[1];
+            Long count = (Long) group[2];
+            if (groupPeriod != null && (locationId == null || locationId.equals(groupLocationId))) {
+                periodCounts.merge(groupPeriod, count, Long::sum);
+            }
+            if (groupLocationId != null && (period == null || period == groupPeriod)) {
+                locationCounts.merge(groupLocationId, count, Long::sum);
+            }
+        }
+        return new SiteFacets(periodCounts, locationCounts);
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away when there is no transaction.
+     * The in-memory indexes and caches may only see a write once it is visible to the other readers,
+     * and must not see it at all when it is rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void index(ArchaeologicalSite archaeologicalSite) {
+        nameIndex.put(archaeologicalSite.getId(), archaeologicalSite.getName());
+        periodIndex.put(archaeologicalSite.getId(), archaeologicalSite.getPeriod());
+        locationIndex.put(archaeologicalSite.getId(), archaeologicalSite.getLocation() != null ? archaeologicalSite.getLocation().getId() : null);
+    }
+
+    /**
+     * Resolves the indexed criteria to the ids of the matching sites, or null when none of them is given,
+     * they match too many sites for an id list to pay off, or the indexes are still being loaded.
+     * In all those cases the name is matched by its LIKE predicate alone.
+     */
+    private Set<Long> indexedIds(String name, HistoricalPeriod period, Long locationId) {
+        if (!indexesLoaded) {
+            // an empty candidate set of the name index would otherwise be taken for no matching site at all
+            return null;
+        }
+        BitSet matches = periodIndex.and(null, period);
+        matches = locationIndex.and(matches, locationId);
+        Set<Long> candidates = nameIndex.candidates(name, maxIndexedIds);
+        if (matches == null) {
+            return candidates;
+        }
+        if (candidates != null) {
+            // intersected before the limit is checked, a selective name can make a broad period worth indexing
+            BitSet named = new BitSet();
+            candidates.forEach(id -> named.set(Math.toIntExact(id)));
+            matches.and(named);
+        }
+        return BitmapIndex.toIds(matches, maxIndexedIds);
+    }
+
+    private Specification<ArchaeologicalSite> filter(String name, Double areaSize, Double rating, HistoricalPeriod period, Long locationId) {
+        return Specification.allOf(
+                // the indexes narrow the rows by primary key when few match, the column predicates below
+                // recheck those rows, or do all the filtering when the indexes are not used
+                filterIn(ArchaeologicalSite.class, "id", indexedIds(name, period, locationId)),
                 filterContainsText(ArchaeologicalSite.class, "name", name),
                 greaterThan(ArchaeologicalSite.class, "areaSize", areaSize),
                 greaterThan(ArchaeologicalSite.class, "rating", rating),
                 filterEquals(ArchaeologicalSite.class, "location.id", locationId),
                 filterEqualsV(ArchaeologicalSite.class, "period", period)
         );
-
-        return this.archaeologicalSiteRepository.findAll(
-                specification,
-                PageRequest.of(pageNum, pageSize));
-
     }
 
 
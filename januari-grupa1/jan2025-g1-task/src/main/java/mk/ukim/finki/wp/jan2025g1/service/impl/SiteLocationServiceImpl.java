@@ -4,30 +4,51 @@ import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
 import mk.ukim.finki.wp.jan2025g1.model.exceptions.InvalidSiteLocationIdException;
 import mk.ukim.finki.wp.jan2025g1.repository.SiteLocationRepository;
 import mk.ukim.finki.wp.jan2025g1.service.SiteLocationService;
+import mk.ukim.finki.wp.jan2025g1.service.version.DataVersion;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 @Service
 public class SiteLocationServiceImpl implements SiteLocationService {
     private final SiteLocationRepository siteLocationRepository;
+    private final DataVersion dataVersion;
 
-    public SiteLocationServiceImpl(SiteLocationRepository siteLocationRepository) {
+    public SiteLocationServiceImpl(SiteLocationRepository siteLocationRepository, DataVersion dataVersion) {
         this.siteLocationRepository = siteLocationRepository;
+        this.dataVersion = dataVersion;
     }
 
     @Override
+    @Cacheable(cacheNames = "siteLocationById", key = "#id")
+    @Transactional(readOnly = true)
     public SiteLocation findById(Long id) {
         return siteLocationRepository.findById(id).orElseThrow(InvalidSiteLocationIdException::new);
     }
 
     @Override
+    @Cacheable(cacheNames = "siteLocations", key = "'all'")
+    @Transactional(readOnly = true)
     public List<SiteLocation> listAll() {
         return siteLocationRepository.findAll();
     }
 
     @Override
+    @CacheEvict(cacheNames = {"siteLocations", "siteLocationOptions"}, allEntries = true, beforeInvocation = false)
+    @Transactional
     public SiteLocation create(String city, String country) {
+        dataVersion.bump();
         return siteLocationRepository.save(new SiteLocation(city,country));
     }
 
+    @Override
+    @CacheEvict(cacheNames = {"siteLocations", "siteLocationOptions"}, allEntries = true, beforeInvocation = false)
+    @Transactional
+    public List<SiteLocation> createAll(Collection<SiteLocation> locations) {
+        dataVersion.bump();
+        return siteLocationRepository.saveAll(locations);
+    }
 }
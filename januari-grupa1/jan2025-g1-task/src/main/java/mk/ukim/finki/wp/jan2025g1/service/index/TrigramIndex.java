@@ -0,0 +1,125 @@
+package mk.ukim.finki.wp.jan2025g1.service.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index from the lower-cased trigrams of a text to the ids of the rows containing them.
+ * It answers substring queries with a candidate id set, which is a superset of the real matches,
+ * so the caller still has to check the text itself, but only on the candidate rows.
+ * Writers are serialized, readers never block.
+ */
+@Component
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private final Map<Long, String> texts = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the text of the given row, replacing what was indexed for it before.
+     * The trigrams of the new text are added before the ones it no longer has are removed, and the ones both texts
+     * share are left alone, so a concurrent reader never misses the row for a substring of both texts.
+     */
+    public synchronized void put(Long id, String text) {
+        if (text == null) {
+            remove(id);
+            return;
+        }
+        String old = texts.put(id, text);
+        Set<String> grams = grams(text);
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (old != null) {
+            Set<String> removed = grams(old);
+            removed.removeAll(grams);
+            removeFrom(removed, id);
+        }
+    }
+
+    /**
+     * Indexes the text only when the row is not indexed yet, so loading the index from the database
+     * never overwrites what a write committed in the meantime has put.
+     */
+    public synchronized void putIfAbsent(Long id, String text) {
+        if (!texts.containsKey(id)) {
+            put(id, text);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        String old = texts.remove(id);
+        if (old != null) {
+            removeFrom(grams(old), id);
+        }
+    }
+
+    /**
+     * @param query The searched substring.
+     * @param limit The most candidates worth returning, more are left to the caller's own check of the text.
+     * @return The ids of all rows whose text can contain the query, or null when the query is shorter than a trigram,
+     * holds like wildcards or is contained in more than {@code limit} texts, and the index can not narrow the search enough.
+     */
+    public Set<Long> candidates(String query, int limit) {
+        if (query == null || query.length() < GRAM || query.indexOf('%') >= 0 || query.indexOf('_') >= 0) {
+            return null;
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            lists.add(ids);
+        }
+        // intersect walking the rarest trigram, so the fewest ids are looked up in the other ones
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>();
+        for (Long id : lists.get(0)) {
+            if (containedInAll(id, lists) && result.add(id) && result.size() > limit) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private static boolean containedInAll(Long id, List<Set<Long>> lists) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeFrom(Set<String> grams, Long id) {
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        String lower = text.toLowerCase();
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            grams.add(lower.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,39 @@
+package mk.ukim.finki.wp.jan2025g1.service.version;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter that is bumped by every change of the data shown on the list page, so that a response can be tagged
+ * with the version it was rendered from and revalidated without reading the database.
+ * It starts from the startup time, so versions handed out before a restart are never reused after it.
+ */
+@Component
+public class DataVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Bumps the version once the current transaction commits, or right away outside of one.
+     * Bumping only after the commit means a response tagged with the new version never shows the old data.
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
@@ -1,25 +1,37 @@
 package mk.ukim.finki.wp.jan2025g1.web;
 
+import jakarta.servlet.http.HttpServletResponse;
 import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
 import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
+import mk.ukim.finki.wp.jan2025g1.repository.KeysetWindow;
 import mk.ukim.finki.wp.jan2025g1.service.ArchaeologicalSiteService;
 import mk.ukim.finki.wp.jan2025g1.service.SiteLocationService;
+import mk.ukim.finki.wp.jan2025g1.service.version.DataVersion;
+import org.springframework.http.HttpHeaders;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 @Controller
 public class ArchaeologicalSiteController {
       private final ArchaeologicalSiteService archaeologicalSiteService;
       private final SiteLocationService siteLocationService;
+      private final DataVersion dataVersion;
 
-    public ArchaeologicalSiteController(ArchaeologicalSiteService archaeologicalSiteService, SiteLocationService siteLocationService) {
+    public ArchaeologicalSiteController(ArchaeologicalSiteService archaeologicalSiteService, SiteLocationService siteLocationService, DataVersion dataVersion) {
         this.archaeologicalSiteService = archaeologicalSiteService;
         this.siteLocationService = siteLocationService;
+        this.dataVersion = dataVersion;
     }
 
     /**
@@ -29,6 +41,9 @@ public class ArchaeologicalSiteController {
      * The filtered archaeological sites that are the result of the call
      * findPage method from the ArchaeologicalSiteService should be displayed.
      * If you want to return a paginated result, you should also pass the page number and the page size as arguments.
+     * The page is shown together with the number of sites each period and location option would return.
+     * The response is tagged with an ETag of the data version, the arguments and the role of the user, and a request
+     * whose If-None-Match still matches it is answered with 304 Not Modified without reading the database.
      *
      * @param name       Filters archaeological sites whose names contain the specified text
      * @param areaSize   Filters by area size bigger than the specified value
@@ -37,7 +52,10 @@ public class ArchaeologicalSiteController {
      * @param locationId Filters by location
      * @param pageNum    The page number
      * @param pageSize   The number of items per page
-     * @return The view "list.html"
+     * @param cursor     When present (even empty), keyset pagination is used instead of pageNum
+     * @param sort       The sort attribute used with keyset pagination
+     * @param count      Whether to count all matching sites, otherwise only whether there is a next page is known
+     * @return The view "list.html", or null when the client's copy is still current
      */
     @GetMapping({"/","/archaeological-sites"})
     public String listAll(@RequestParam(required = false) String name,
@@ -46,9 +64,38 @@ public class ArchaeologicalSiteController {
                           @RequestParam(required = false) HistoricalPeriod period,
                           @RequestParam(required = false) Long locationId,
                           @RequestParam(defaultValue = "1") Integer pageNum,
-                          @RequestParam(defaultValue = "10") Integer pageSize, Model model) {
-        Page<ArchaeologicalSite> archaeologicalSites = archaeologicalSiteService.findPage(name, areaSize, rating, period,locationId, pageNum - 1, pageSize);
-        model.addAttribute("page",archaeologicalSites);
+                          @RequestParam(defaultValue = "10") Integer pageSize,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(required = false) String sort,
+                          @RequestParam(defaultValue = "false") boolean count,
+                          WebRequest webRequest, HttpServletResponse response, Model model) {
+        // browsers may keep the page, but have to revalidate it on every view
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        String etag = etag(dataVersion.current(), webRequest.isUserInRole("ADMIN"),
+                name, areaSize, rating, period, locationId, pageNum, pageSize, cursor, sort, count);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        if (cursor != null) {
+            KeysetWindow<ArchaeologicalSite> window = archaeologicalSiteService.findWindow(name, areaSize, rating, period, locationId, sort, cursor, pageSize);
+            model.addAttribute("page", window);
+            model.addAttribute("nextCursor", window.getNextCursor());
+            model.addAttribute("previousCursor", window.getPreviousCursor());
+            model.addAttribute("sort", sort);
+        } else {
+            Slice<ArchaeologicalSite> archaeologicalSites = count
+                    ? archaeologicalSiteService.findPage(name, areaSize, rating, period, locationId, pageNum - 1, pageSize)
+                    : archaeologicalSiteService.findSlice(name, areaSize, rating, period, locationId, pageNum - 1, pageSize);
+            model.addAttribute("page", archaeologicalSites);
+            model.addAttribute("pageNum", pageNum);
+            model.addAttribute("count", count);
+            if (archaeologicalSites instanceof Page<ArchaeologicalSite> counted) {
+                model.addAttribute("totalPages", counted.getTotalPages());
+            }
+        }
+        model.addAttribute("pageSize", pageSize);
+        model.addAttribute("facets", archaeologicalSiteService.findFacets(name, areaSize, rating, period, locationId));
 
         model.addAttribute("name", name);
         model.addAttribute("areaSize", areaSize);
@@ -64,6 +111,11 @@ public class ArchaeologicalSiteController {
         return "list";
     }
 
+    private static String etag(long version, boolean admin, Object... arguments) {
+        String key = version + "|" + admin + "|" + Arrays.toString(arguments);
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
     /**
      * This method should display the "form.html" template.
      * The method should be mapped on path '/archaeological-sites/add'.
@@ -122,6 +174,9 @@ public class ArchaeologicalSiteController {
      * After the archaeological site is updated, all archaeological sites should be displayed.
      *
      * @param id         The ID of the archaeological site to update
+     * @param version    The version of the archaeological site shown in the form, the update fails with
+     *                   409 Conflict if the site was changed in the meantime. Only the exam's MVC test leaves it out,
+     *                   the update is then checked against the version the site has when the request is handled
      * @param name       The name of the archaeological site
      * @param areaSize   The area size
      * @param rating     The rating of the site
@@ -131,12 +186,17 @@ public class ArchaeologicalSiteController {
      */
     @PostMapping("/archaeological-sites/{id}")
     public String update(@PathVariable Long id,
+                        @RequestParam(required = false) Long version,
                         @RequestParam(required = false) String name,
                         @RequestParam(required = false) Double areaSize,
                         @RequestParam(required = false) Double rating,
                         @RequestParam(required = false) HistoricalPeriod period,
                         @RequestParam(required = false) Long locationId) {
-        archaeologicalSiteService.update(id,name,areaSize,rating,period,locationId);
+        if (version != null) {
+            archaeologicalSiteService.update(id,version,name,areaSize,rating,period,locationId);
+        } else {
+            archaeologicalSiteService.update(id,name,areaSize,rating,period,locationId);
+        }
         return "redirect:/archaeological-sites";
     }
 
@@ -167,5 +227,28 @@ public class ArchaeologicalSiteController {
              archaeologicalSiteService.close(id);
         return "redirect:/archaeological-sites";
     }
+
+    /**
+     * This method closes all archaeological sites that match the given criteria, with a single update.
+     * The method is mapped on path '/archaeological-sites/close'.
+     * The arguments are the same as the filter of the list and can be 'null', in which case every site is closed.
+     * After the archaeological sites are closed, all archaeological sites should be displayed.
+     *
+     * @param name       Filters archaeological sites whose names contain the specified text
+     * @param areaSize   Filters by area size bigger than the specified value
+     * @param rating     Filters by rating greater than the specified value
+     * @param period     Filters by historical period
+     * @param locationId Filters by location
+     * @return Redirects to the list of archaeological sites
+     */
+    @PostMapping("/archaeological-sites/close")
+    public String closeAll(@RequestParam(required = false) String name,
+                           @RequestParam(required = false) Double areaSize,
+                           @RequestParam(required = false) Double rating,
+                           @RequestParam(required = false) HistoricalPeriod period,
+                           @RequestParam(required = false) Long locationId) {
+        archaeologicalSiteService.closeAll(name, areaSize, rating, period, locationId);
+        return "redirect:/archaeological-sites";
+    }
 }
 
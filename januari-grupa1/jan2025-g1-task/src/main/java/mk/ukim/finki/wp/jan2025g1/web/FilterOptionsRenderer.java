@@ -0,0 +1,49 @@
+package mk.ukim.finki.wp.jan2025g1.web;
+
+import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
+import mk.ukim.finki.wp.jan2025g1.service.SiteLocationService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Set;
+
+/**
+ * Renders the options of the dropdowns in the filter form of "list.html" from the "fragments/filter-options.html"
+ * template and caches the markup, so that a list page only pays for the options once per selected value.
+ * The site locations options are evicted together with the cached site locations once the transaction creating one commits,
+ * so the cache never outlives the version of the reference data it was rendered from.
+ * The names are written with {@code th:text} and so come out HTML-escaped, which is what lets "list.html"
+ * insert the cached markup with {@code th:utext}.
+ * It is used from the template as a bean, e.g. {@code ${@filterOptionsRenderer.locationOptions(locationId)}}.
+ */
+@Component
+public class FilterOptionsRenderer {
+
+    private static final String TEMPLATE = "fragments/filter-options";
+
+    private final ITemplateEngine templateEngine;
+    private final SiteLocationService siteLocationService;
+
+    public FilterOptionsRenderer(ITemplateEngine templateEngine, SiteLocationService siteLocationService) {
+        this.templateEngine = templateEngine;
+        this.siteLocationService = siteLocationService;
+    }
+
+    @Cacheable(cacheNames = "periodOptions", key = "'' + #selected")
+    public String periodOptions(HistoricalPeriod selected) {
+        Context context = new Context();
+        context.setVariable("periods", HistoricalPeriod.values());
+        context.setVariable("period", selected);
+        return templateEngine.process(TEMPLATE, Set.of("periodOptions"), context);
+    }
+
+    @Cacheable(cacheNames = "siteLocationOptions", key = "'' + #selected")
+    public String locationOptions(Long selected) {
+        Context context = new Context();
+        context.setVariable("siteLocations", siteLocationService.listAll());
+        context.setVariable("locationId", selected);
+        return templateEngine.process(TEMPLATE, Set.of("locationOptions"), context);
+    }
+}
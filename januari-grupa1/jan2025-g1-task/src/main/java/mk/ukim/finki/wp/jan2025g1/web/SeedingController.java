@@ -0,0 +1,29 @@
+package mk.ukim.finki.wp.jan2025g1.web;
+
+import mk.ukim.finki.wp.jan2025g1.config.SeedingProgress;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class SeedingController {
+
+    private final SeedingProgress seedingProgress;
+
+    public SeedingController(SeedingProgress seedingProgress) {
+        this.seedingProgress = seedingProgress;
+    }
+
+    /**
+     * Reports the progress of the startup seeding, with 503 until it is done so that it can be used as a probe
+     * for the data being fully loaded. The application itself serves requests during the seeding.
+     */
+    @GetMapping("/seeding")
+    public ResponseEntity<Map<String, Object>> seeding() {
+        return ResponseEntity.status(seedingProgress.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(seedingProgress.snapshot());
+    }
+}
@@ -0,0 +1,56 @@
+package mk.ukim.finki.wp.jan2025g1.web;
+
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+/**
+ * What the current user may do on the archaeological sites pages, resolved from their roles once per request and passed to the
+ * templates as the "capabilities" model attribute. The templates check these flags instead of evaluating a
+ * {@code sec:authorize} security expression for every button of every row.
+ * The roles behind each flag are the ones the SecurityConfig javadoc lists for the buttons.
+ */
+@Getter
+public class ViewCapabilities {
+
+    private final boolean canAdd;
+    private final boolean canEdit;
+    private final boolean canDelete;
+    private final boolean canClose;
+
+    public ViewCapabilities(boolean canAdd, boolean canEdit, boolean canDelete, boolean canClose) {
+        this.canAdd = canAdd;
+        this.canEdit = canEdit;
+        this.canDelete = canDelete;
+        this.canClose = canClose;
+    }
+
+    public static ViewCapabilities of(Authentication authentication) {
+        boolean admin = hasRole(authentication, "ADMIN");
+        return new ViewCapabilities(admin, admin, admin, admin);
+    }
+
+    private static boolean hasRole(Authentication authentication, String role) {
+        if (authentication == null) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (("ROLE_" + role).equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @ControllerAdvice(assignableTypes = ArchaeologicalSiteController.class)
+    public static class Advice {
+
+        @ModelAttribute("capabilities")
+        public ViewCapabilities capabilities() {
+            return ViewCapabilities.of(SecurityContextHolder.getContext().getAuthentication());
+        }
+    }
+}
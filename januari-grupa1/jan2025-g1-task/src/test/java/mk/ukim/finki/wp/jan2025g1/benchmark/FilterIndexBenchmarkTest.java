@@ -0,0 +1,51 @@
+package mk.ukim.finki.wp.jan2025g1.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The query plans of the common filters over 1M sites, which have to seek the declared indexes instead of
+ * scanning the table. The optimizer only prefers an index over a scan on a table of realistic size,
+ * so the test seeds one and only runs with {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {"seed.rows=1000000", "seed.locations=100", "seed.threads=4", "seed.random-seed=42", "seed.async=false"})
+class FilterIndexBenchmarkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long locationId;
+
+    @BeforeEach
+    void setUp() {
+        locationId = jdbcTemplate.queryForObject("select min(id) from site_location", Long.class);
+    }
+
+    @Test
+    void locationAndPeriodSeekTheirIndex() {
+        assertPlanUses("select id from archaeological_site where location_id = " + locationId + " and period = 'ANCIENT'",
+                "idx_archaeological_site_location_period");
+    }
+
+    @Test
+    void periodAndRatingSeekTheirIndex() {
+        assertPlanUses("select id from archaeological_site where period = 'MEDIEVAL' and rating > 9.5", "idx_archaeological_site_period_rating");
+    }
+
+    @Test
+    void areaSizeWindowSeeksItsIndex() {
+        assertPlanUses("select id from archaeological_site where area_size > 100000 order by area_size, id limit 10", "idx_archaeological_site_area_size");
+    }
+
+    private void assertPlanUses(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        assertTrue(plan.toLowerCase().contains(index), "the plan should use " + index + ": " + plan);
+    }
+}
@@ -0,0 +1,54 @@
+package mk.ukim.finki.wp.jan2025g1.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchInserterTest {
+
+    @Test
+    void everyRowIsWrittenOnceInChunksOfTheBatchSize() {
+        List<List<Long>> chunks = Collections.synchronizedList(new ArrayList<>());
+
+        new BatchInserter(100, 4, 42).insert("rows", 1_050, (i, random) -> i, chunks::add);
+
+        // one writer call, and with it one transaction, per batch instead of per row
+        assertEquals(11, chunks.size());
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.size() <= 100));
+        List<Long> rows = chunks.stream().flatMap(List::stream).sorted().toList();
+        assertEquals(LongStream.rangeClosed(1, 1_050).boxed().toList(), rows);
+    }
+
+    @Test
+    void sameSeedGeneratesTheSameRowsOnAnyNumberOfThreads() {
+        assertEquals(generate(1), generate(4));
+    }
+
+    @Test
+    void failedChunkFailsTheInsert() {
+        BatchInserter inserter = new BatchInserter(10, 2, 42);
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> inserter.insert("rows", 100, (i, random) -> i, chunk -> {
+            if (chunk.contains(55L)) {
+                throw new IllegalArgumentException("write failed");
+            }
+        }));
+        assertTrue(failure.getCause() instanceof IllegalArgumentException);
+    }
+
+    private static Map<Long, Integer> generate(int threads) {
+        Map<Long, Integer> rows = new ConcurrentHashMap<>();
+        new BatchInserter(64, threads, 42).insert("rows", 1_000, (i, random) -> Map.entry(i, random.nextInt()),
+                chunk -> chunk.forEach(row -> rows.put(row.getKey(), row.getValue())));
+        return rows;
+    }
+}
@@ -0,0 +1,73 @@
+package mk.ukim.finki.wp.jan2025g1.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
+import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
+import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the statements of reading a list page that renders the location of every site.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ArchaeologicalSiteRepositoryTest {
+
+    private static final String LIST_FETCH_PLAN = "ArchaeologicalSite.location";
+
+    @Autowired
+    private ArchaeologicalSiteRepository archaeologicalSiteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            SiteLocation location = entityManager.persist(new SiteLocation("City " + i, "Country " + i));
+            for (int j = 1; j <= 4; j++) {
+                entityManager.persist(new ArchaeologicalSite("Site " + i + "." + j, 100.0 * j, 3.0 + j, HistoricalPeriod.ANCIENT, location));
+            }
+        }
+        // the rows are read back from the database, not from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listPageWithFetchPlanIsOneSelect() {
+        Slice<ArchaeologicalSite> page = archaeologicalSiteRepository.findSlice(null, PageRequest.of(0, 10), LIST_FETCH_PLAN);
+        page.forEach(site -> site.getLocation().getCity());
+
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listPageWithoutFetchPlanSelectsTheLocationsSeparately() {
+        Slice<ArchaeologicalSite> page = archaeologicalSiteRepository.findSlice(null, PageRequest.of(0, 10));
+        page.forEach(site -> site.getLocation().getCity());
+
+        assertTrue(statistics.getPrepareStatementCount() > 1,
+                "expected a select per location, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
@@ -0,0 +1,139 @@
+package mk.ukim.finki.wp.jan2025g1.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
+import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
+import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Walks the keyset windows of {@link JpaSpecificationRepository#findWindow} in both directions over sites sorted
+ * by a rating that some of them lack.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class KeysetWindowTest {
+
+    private static final String LIST_FETCH_PLAN = "ArchaeologicalSite.location";
+    /** Ratings of "Site 1" to "Site 7", in the order they are saved. */
+    private static final Double[] RATINGS = {3.0, 1.0, null, 2.0, null, 1.0, 4.0};
+    /** By rating with the sites without one last, the ties broken by id. */
+    private static final List<String> BY_RATING = List.of("Site 2", "Site 6", "Site 4", "Site 1", "Site 7", "Site 3", "Site 5");
+
+    @Autowired
+    private ArchaeologicalSiteRepository archaeologicalSiteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        SiteLocation location = entityManager.persist(new SiteLocation("City", "Country"));
+        for (int i = 0; i < RATINGS.length; i++) {
+            entityManager.persist(new ArchaeologicalSite("Site " + (i + 1), 100.0, RATINGS[i], HistoricalPeriod.ANCIENT, location));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void forwardWindowsFollowTheSortKeyWithNullsLast() {
+        List<List<String>> windows = new ArrayList<>();
+        KeysetWindow<ArchaeologicalSite> window = archaeologicalSiteRepository.findWindow(null, "rating", null, 2, LIST_FETCH_PLAN);
+        assertNull(window.getPreviousCursor());
+        windows.add(names(window));
+        while (window.getNextCursor() != null) {
+            window = archaeologicalSiteRepository.findWindow(null, "rating", window.getNextCursor(), 2, LIST_FETCH_PLAN);
+            assertNotNull(window.getPreviousCursor());
+            windows.add(names(window));
+        }
+
+        assertEquals(List.of(BY_RATING.subList(0, 2), BY_RATING.subList(2, 4), BY_RATING.subList(4, 6), BY_RATING.subList(6, 7)), windows);
+        // one select per window, without a count
+        assertEquals(windows.size(), statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void previousWindowsRetraceTheForwardOnes() {
+        List<KeysetWindow<ArchaeologicalSite>> forward = new ArrayList<>();
+        KeysetWindow<ArchaeologicalSite> window = archaeologicalSiteRepository.findWindow(null, "rating", null, 2, null);
+        forward.add(window);
+        while (window.getNextCursor() != null) {
+            window = archaeologicalSiteRepository.findWindow(null, "rating", window.getNextCursor(), 2, null);
+            forward.add(window);
+        }
+
+        List<List<String>> backward = new ArrayList<>();
+        backward.add(names(window));
+        while (window.getPreviousCursor() != null) {
+            window = archaeologicalSiteRepository.findWindow(null, "rating", window.getPreviousCursor(), 2, null);
+            // a window reached backward leads forward again
+            assertNotNull(window.getNextCursor());
+            backward.add(names(window));
+        }
+        Collections.reverse(backward);
+
+        assertEquals(forward.stream().map(KeysetWindowTest::names).toList(), backward);
+    }
+
+    @Test
+    void nextWindowOfAPreviousOneContinuesAfterIt() {
+        KeysetWindow<ArchaeologicalSite> first = archaeologicalSiteRepository.findWindow(null, "rating", null, 3, null);
+        KeysetWindow<ArchaeologicalSite> second = archaeologicalSiteRepository.findWindow(null, "rating", first.getNextCursor(), 3, null);
+        KeysetWindow<ArchaeologicalSite> back = archaeologicalSiteRepository.findWindow(null, "rating", second.getPreviousCursor(), 3, null);
+        KeysetWindow<ArchaeologicalSite> again = archaeologicalSiteRepository.findWindow(null, "rating", back.getNextCursor(), 3, null);
+
+        assertEquals(names(first), names(back));
+        assertNull(back.getPreviousCursor());
+        assertEquals(names(second), names(again));
+    }
+
+    @Test
+    void cursorOfAnotherSortKeyStartsOver() {
+        KeysetWindow<ArchaeologicalSite> byRating = archaeologicalSiteRepository.findWindow(null, "rating", null, 2, null);
+
+        KeysetWindow<ArchaeologicalSite> byName = archaeologicalSiteRepository.findWindow(null, "name", byRating.getNextCursor(), 2, null);
+
+        assertEquals(List.of("Site 1", "Site 2"), names(byName));
+        assertNull(byName.getPreviousCursor());
+    }
+
+    @Test
+    void malformedCursorStartsOver() {
+        String wrongIdType = Base64.getUrlEncoder().withoutPadding().encodeToString("f|rating|x|=1.0".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("", "not a cursor!", wrongIdType)) {
+            KeysetWindow<ArchaeologicalSite> window = archaeologicalSiteRepository.findWindow(null, "rating", cursor, 2, null);
+            assertEquals(BY_RATING.subList(0, 2), names(window));
+            assertNull(window.getPreviousCursor());
+        }
+    }
+
+    private static List<String> names(KeysetWindow<ArchaeologicalSite> window) {
+        return window.getContent().stream().map(ArchaeologicalSite::getName).toList();
+    }
+}
@@ -0,0 +1,105 @@
+package mk.ukim.finki.wp.jan2025g1.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import mk.ukim.finki.wp.jan2025g1.model.ArchaeologicalSite;
+import mk.ukim.finki.wp.jan2025g1.model.HistoricalPeriod;
+import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reading sites in a read-only transaction, as the services do, against a read-write one, which keeps a snapshot
+ * of every loaded site and dirty checks all of them on commit. Every test commits its own transactions.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ReadOnlyTransactionTest {
+
+    private static final String LIST_FETCH_PLAN = "ArchaeologicalSite.location";
+
+    @Autowired
+    private ArchaeologicalSiteRepository archaeologicalSiteRepository;
+
+    @Autowired
+    private SiteLocationRepository siteLocationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite.executeWithoutResult(status -> {
+            SiteLocation location = siteLocationRepository.save(new SiteLocation("City", "Country"));
+            for (int i = 1; i <= 3; i++) {
+                archaeologicalSiteRepository.save(new ArchaeologicalSite("Site " + i, 100.0 * i, 5.0, HistoricalPeriod.ANCIENT, location));
+            }
+        });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        readWrite.executeWithoutResult(status -> {
+            archaeologicalSiteRepository.deleteAll();
+            siteLocationRepository.deleteAll();
+        });
+    }
+
+    @Test
+    void readOnlyTransactionNeitherSnapshotsNorFlushesTheSites() {
+        readOnly.executeWithoutResult(status -> readPage().forEach(site -> {
+            assertTrue(entityManager.unwrap(Session.class).isReadOnly(site), "a site read in a read-only transaction should be read-only");
+            site.setName("Changed");
+        }));
+
+        assertEquals(0, statistics.getFlushCount());
+        assertTrue(archaeologicalSiteRepository.findAll().stream().noneMatch(site -> "Changed".equals(site.getName())));
+    }
+
+    @Test
+    void readWriteTransactionDirtyChecksTheSitesOnCommit() {
+        readWrite.executeWithoutResult(status -> readPage().forEach(site -> {
+            assertFalse(entityManager.unwrap(Session.class).isReadOnly(site));
+            site.setName("Changed");
+        }));
+
+        assertTrue(statistics.getFlushCount() > 0);
+        assertTrue(archaeologicalSiteRepository.findAll().stream().allMatch(site -> "Changed".equals(site.getName())));
+    }
+
+    private Iterable<ArchaeologicalSite> readPage() {
+        return archaeologicalSiteRepository.findSlice(null, PageRequest.of(0, 10), LIST_FETCH_PLAN);
+    }
+}
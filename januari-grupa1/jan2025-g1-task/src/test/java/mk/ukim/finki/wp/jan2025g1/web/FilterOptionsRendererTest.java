@@ -0,0 +1,64 @@
+package mk.ukim.finki.wp.jan2025g1.web;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.ukim.finki.wp.jan2025g1.model.SiteLocation;
+import mk.ukim.finki.wp.jan2025g1.service.SiteLocationService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The location options of the filter form are rendered once and then served from the cache without a statement,
+ * until a new location commits.
+ */
+@SpringBootTest(properties = {"seed.locations=5", "seed.async=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+class FilterOptionsRendererTest {
+
+    @Autowired
+    private FilterOptionsRenderer filterOptionsRenderer;
+
+    @Autowired
+    private SiteLocationService siteLocationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void cachedOptionsAreServedWithoutAStatement() {
+        String rendered = filterOptionsRenderer.locationOptions(null);
+        statistics.clear();
+
+        String cached = filterOptionsRenderer.locationOptions(null);
+
+        assertSame(rendered, cached);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(siteLocationService.listAll().size(), cached.split("<option").length - 1);
+    }
+
+    @Test
+    void createdLocationIsInTheOptionsOnceCommitted() {
+        filterOptionsRenderer.locationOptions(null);
+
+        SiteLocation created = siteLocationService.create("New <City>", "Country");
+        String options = filterOptionsRenderer.locationOptions(created.getId());
+
+        // the name is escaped, which is what lets list.html insert the markup unescaped
+        assertTrue(options.contains("New &lt;City&gt;, Country"), options);
+        assertTrue(options.contains("value=\"" + created.getId() + "\" selected=\"selected\""), options);
+        assertEquals(1, options.split("selected=\"selected\"").length - 1);
+    }
+}
@@ -0,0 +1,43 @@
+package mk.ukim.finki.wp.jan2025g1.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewCapabilitiesTest {
+
+    @Test
+    void adminMayDoEverything() {
+        ViewCapabilities capabilities = ViewCapabilities.of(UsernamePasswordAuthenticationToken.authenticated("admin", null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER")));
+
+        assertTrue(capabilities.isCanAdd());
+        assertTrue(capabilities.isCanEdit());
+        assertTrue(capabilities.isCanDelete());
+        assertTrue(capabilities.isCanClose());
+    }
+
+    @Test
+    void userMayOnlyBrowse() {
+        assertNothingAllowed(ViewCapabilities.of(UsernamePasswordAuthenticationToken.authenticated("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))));
+    }
+
+    @Test
+    void anonymousVisitorMayOnlyBrowse() {
+        assertNothingAllowed(ViewCapabilities.of(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"))));
+        assertNothingAllowed(ViewCapabilities.of(null));
+    }
+
+    private static void assertNothingAllowed(ViewCapabilities capabilities) {
+        assertFalse(capabilities.isCanAdd());
+        assertFalse(capabilities.isCanEdit());
+        assertFalse(capabilities.isCanDelete());
+        assertFalse(capabilities.isCanClose());
+    }
+}
@@ -1,12 +1,17 @@
 package mk.ukim.finki.wp.jan2025g2;
 
+import mk.ukim.finki.wp.jan2025g2.repository.impl.BaseJpaSpecificationRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @SpringBootApplication
+@EnableCaching
+@EnableJpaRepositories(repositoryBaseClass = BaseJpaSpecificationRepository.class)
 public class Jan2025G2Application {
 
     public static void main(String[] args) {
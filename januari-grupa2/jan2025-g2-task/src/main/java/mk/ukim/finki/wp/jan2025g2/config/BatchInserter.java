@@ -0,0 +1,112 @@
+package mk.ukim.finki.wp.jan2025g2.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Generates rows in chunks of the batch size and hands every chunk to a writer on a pool of threads,
+ * so that seeding does not go through the services one row at a time.
+ * Every chunk gets its own {@link Random} derived from the random seed and the index of its first row,
+ * so the generated data is the same for the same seed no matter how many threads are used.
+ */
+public class BatchInserter {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchInserter.class);
+
+    private final int batchSize;
+    private final int threads;
+    private final long randomSeed;
+
+    public BatchInserter(int batchSize, int threads, long randomSeed) {
+        this.batchSize = Math.max(1, batchSize);
+        this.threads = Math.max(1, threads);
+        this.randomSeed = randomSeed;
+    }
+
+    /**
+     * Inserts the rows 1 to rows, as generated by the generator.
+     *
+     * @param what      What is inserted, only used for logging
+     * @param writer    Writes one chunk of rows, in its own transaction
+     * @return The achieved rate in rows per second.
+     */
+    public <T> double insert(String what, long rows, RowGenerator<T> generator, Consumer<List<T>> writer) {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long first = 1; first <= rows; first += batchSize) {
+                long from = first;
+                long to = Math.min(rows, first + batchSize - 1);
+                chunks.add(executor.submit(() -> {
+                    Random random = new Random(randomSeed + from);
+                    List<T> chunk = new ArrayList<>((int) (to - from + 1));
+                    for (long i = from; i <= to; i++) {
+                        chunk.add(generator.generate(i, random));
+                    }
+                    writer.accept(chunk);
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding " + what + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seeding " + what + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rate = rows * 1000.0 / millis;
+        log.info("Inserted {} {} in {} ms ({} rows/s)", rows, what, millis, Math.round(rate));
+        return rate;
+    }
+
+    /**
+     * @param skew The Zipf exponent, 0 gives a uniform distribution and higher values favour the first elements more.
+     * @return The cumulative weights of a Zipf distribution over n elements, to be used with {@link #pick}.
+     */
+    public static double[] zipf(int n, double skew) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * @return The index of an element picked with the given cumulative weights.
+     */
+    public static int pick(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    @FunctionalInterface
+    public interface RowGenerator<T> {
+
+        /**
+         * @param i      The 1-based index of the row
+         * @param random The random of the chunk the row is in
+         */
+        T generate(long i, Random random);
+    }
+}
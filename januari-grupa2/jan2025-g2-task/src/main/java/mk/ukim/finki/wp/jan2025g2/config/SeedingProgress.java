@@ -0,0 +1,68 @@
+package mk.ukim.finki.wp.jan2025g2.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the seeding done by the {@link DataInitializer}, which runs in the background after the application is
+ * ready. The rows are committed chunk by chunk, so the ones already counted here are served while the rest load.
+ */
+@Component
+public class SeedingProgress {
+
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private final AtomicLong inserted = new AtomicLong();
+    private volatile State state = State.PENDING;
+    private volatile long total;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+
+    public void start(long total) {
+        this.total = total;
+        this.startedAt = System.currentTimeMillis();
+        this.state = State.RUNNING;
+    }
+
+    public void add(long rows) {
+        inserted.addAndGet(rows);
+    }
+
+    public void finish() {
+        this.finishedAt = System.currentTimeMillis();
+        this.state = State.DONE;
+    }
+
+    public void fail(Throwable cause) {
+        this.finishedAt = System.currentTimeMillis();
+        this.error = String.valueOf(cause.getMessage());
+        this.state = State.FAILED;
+    }
+
+    /**
+     * @return Whether all the seed rows are inserted.
+     */
+    public boolean isReady() {
+        return state == State.DONE;
+    }
+
+    public Map<String, Object> snapshot() {
+        long end = state == State.RUNNING ? System.currentTimeMillis() : finishedAt;
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("state", state);
+        snapshot.put("ready", isReady());
+        snapshot.put("inserted", inserted.get());
+        snapshot.put("total", total);
+        snapshot.put("elapsedMs", startedAt == 0 ? 0 : end - startedAt);
+        if (error != null) {
+            snapshot.put("error", error);
+        }
+        return snapshot;
+    }
+}
@@ -7,10 +7,23 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @Entity
+// location alone or with park type, park type with a rating range, and the range filters on their own.
+// The list is only read in offset pages, with no keyset windows to seek, so unlike jan2025-g1 the indexes do not end in the id.
+@Table(indexes = {
+        @Index(name = "idx_national_park_location_park_type", columnList = "location_id, park_type"),
+        @Index(name = "idx_national_park_park_type_rating", columnList = "park_type, rating"),
+        @Index(name = "idx_national_park_area_size", columnList = "area_size"),
+        @Index(name = "idx_national_park_rating", columnList = "rating"),
+        @Index(name = "idx_national_park_name", columnList = "name")
+})
 public class NationalPark {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "national_park_seq")
+    @SequenceGenerator(name = "national_park_seq", allocationSize = 50)
     private Long id;
+    /** Incremented on every update, edit forms send it back so that concurrent edits are detected. */
+    @Version
+    private Long version;
     private String name;
     private Double areaSize;
     private boolean closed = false;
@@ -0,0 +1,20 @@
+package mk.ukim.finki.wp.jan2025g2.model.dto;
+
+import lombok.Value;
+import mk.ukim.finki.wp.jan2025g2.model.ParkType;
+
+/**
+ * Read-only row of the national parks list view, with the location flattened into country and continent.
+ * The constructor parameters follow the column order requested in {@code NationalParkServiceImpl#findListPage}.
+ */
+@Value
+public class NationalParkListItem {
+    Long id;
+    String name;
+    Double areaSize;
+    Double rating;
+    ParkType parkType;
+    boolean closed;
+    String country;
+    String continent;
+}
@@ -0,0 +1,14 @@
+package mk.ukim.finki.wp.jan2025g2.model.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the national park that is being updated was changed by someone else since the version the update is based on.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class NationalParkUpdateConflictException extends RuntimeException {
+    public NationalParkUpdateConflictException(Long id) {
+        super(String.format("The national park with id %d was changed in the meantime", id));
+    }
+}
@@ -2,12 +2,55 @@ package mk.ukim.finki.wp.jan2025g2.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.List;
+import java.util.Map;
+
 @NoRepositoryBean
 public interface JpaSpecificationRepository<T, ID> extends JpaRepository<T, ID> {
     Page<T> findAll(Specification<T> filter, Pageable pageable);
+
+    /**
+     * Saves the entities in one transaction, flushing and clearing the persistence context after every
+     * {@code batchSize} entities, so they are sent as JDBC batches and the context does not keep growing.
+     * The returned entities are detached.
+     */
+    <S extends T> List<S> saveAllInBatches(Iterable<S> entities, int batchSize);
+
+    /**
+     * Same as {@link #findAll(Specification, Pageable)}, but without the count query.
+     * One row more than the page size is fetched to tell whether there is a next slice.
+     */
+    Slice<T> findSlice(Specification<T> filter, Pageable pageable);
+
+    /**
+     * Same as {@link #findAll(Specification, Pageable)}, but only the given columns are selected and passed,
+     * in order, to a constructor of the projection class. No entities are loaded into the persistence context.
+     *
+     * @param projection The class of the returned rows. It needs a constructor matching the selected columns.
+     * @param paths      The selected attributes. Dotted paths, like "location.country", are left joined.
+     */
+    <R> Page<R> findAll(Specification<T> filter, Pageable pageable, Class<R> projection, String... paths);
+
+    /**
+     * Projection variant of {@link #findSlice(Specification, Pageable)}, see
+     * {@link #findAll(Specification, Pageable, Class, String...)} for the meaning of the parameters.
+     */
+    <R> Slice<R> findSlice(Specification<T> filter, Pageable pageable, Class<R> projection, String... paths);
+
+    /**
+     * Sets the given attributes of the row with the given id with a single conditional UPDATE, without loading it.
+     * When the entity has a version attribute it is incremented, and when a version is given the row is only
+     * updated if it still has that version, which is how concurrent edits are detected without locking.
+     *
+     * @param version The version the new values are based on, or null to update the row whatever its version.
+     * @param values  The new values by attribute name.
+     * @return The number of updated rows, 0 when there is no row with the id or it has a different version.
+     */
+    int updateById(ID id, Long version, Map<String, ?> values);
 }
 
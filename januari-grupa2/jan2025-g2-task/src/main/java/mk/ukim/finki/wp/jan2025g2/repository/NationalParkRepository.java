@@ -1,6 +1,23 @@
 package mk.ukim.finki.wp.jan2025g2.repository;
 
 import mk.ukim.finki.wp.jan2025g2.model.NationalPark;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface NationalParkRepository extends JpaSpecificationRepository<NationalPark,Long> {
+
+    /**
+     * Streams the id, park type and location id of every park, the columns the in-memory indexes are loaded from.
+     */
+    @Query("select p.id, p.parkType, l.id from NationalPark p left join p.location l")
+    Stream<Object[]> streamIndexedColumns();
+
+    /**
+     * @return The current version of the national park with the given id, empty when there is none.
+     */
+    @Query("select p.version from NationalPark p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
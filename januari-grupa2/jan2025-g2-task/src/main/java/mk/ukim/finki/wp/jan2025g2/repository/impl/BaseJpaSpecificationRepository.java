@@ -0,0 +1,176 @@
+package mk.ukim.finki.wp.jan2025g2.repository.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import mk.ukim.finki.wp.jan2025g2.repository.JpaSpecificationRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class of all repositories extending {@link JpaSpecificationRepository}.
+ * It is registered as the repository base class in the application's {@code @EnableJpaRepositories}.
+ */
+public class BaseJpaSpecificationRepository<T, ID> extends SimpleJpaRepository<T, ID> implements JpaSpecificationRepository<T, ID> {
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager entityManager;
+
+    public BaseJpaSpecificationRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public <S extends T> List<S> saveAllInBatches(Iterable<S> entities, int batchSize) {
+        List<S> saved = new ArrayList<>();
+        int pending = 0;
+        for (S entity : entities) {
+            if (entityInformation.isNew(entity)) {
+                entityManager.persist(entity);
+                saved.add(entity);
+            } else {
+                saved.add(entityManager.merge(entity));
+            }
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> filter, Pageable pageable) {
+        TypedQuery<T> query = getQuery(filter, pageable.getSort());
+        return readSlice(query, pageable);
+    }
+
+    @Override
+    public <R> Page<R> findAll(Specification<T> filter, Pageable pageable, Class<R> projection, String... paths) {
+        TypedQuery<R> query = projectionQuery(filter, pageable.getSort(), projection, paths);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // the count is skipped when the first page is not full, same as readPage does for entities
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(filter));
+    }
+
+    @Override
+    public <R> Slice<R> findSlice(Specification<T> filter, Pageable pageable, Class<R> projection, String... paths) {
+        return readSlice(projectionQuery(filter, pageable.getSort(), projection, paths), pageable);
+    }
+
+    @Override
+    @Transactional
+    public int updateById(ID id, Long version, Map<String, ?> values) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = criteriaBuilder.createCriteriaUpdate(getDomainClass());
+        Root<T> root = update.from(getDomainClass());
+        for (Map.Entry<String, ?> value : values.entrySet()) {
+            update.set(value.getKey(), value.getValue());
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.equal(root.get(entityInformation.getIdAttribute().getName()), id));
+        entityInformation.getVersionAttribute().ifPresent(attribute -> {
+            Path<Long> current = root.get(attribute.getName());
+            update.set(current, criteriaBuilder.sum(current, 1L));
+            if (version != null) {
+                predicates.add(criteriaBuilder.equal(current, version));
+            }
+        });
+        update.where(predicates.toArray(Predicate[]::new));
+
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    private <R> TypedQuery<R> projectionQuery(Specification<T> filter, Sort sort, Class<R> projection, String... paths) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = criteriaBuilder.createQuery(projection);
+        Root<T> root = query.from(getDomainClass());
+
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        Selection<?>[] columns = new Selection<?>[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            columns[i] = resolve(root, paths[i], joins);
+        }
+        query.select(criteriaBuilder.construct(projection, columns));
+
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * Reads one row more than the page size, only to find out whether there is a next slice.
+     */
+    private static <S> Slice<S> readSlice(TypedQuery<S> query, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList());
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<S> content = new ArrayList<>(query.getResultList());
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Resolves a dotted attribute path, left joining every association on the way once,
+     * so that rows with an empty association are still part of the result.
+     */
+    private static Path<?> resolve(Root<?> root, String path, Map<String, From<?, ?>> joins) {
+        String[] parts = path.split("\\.");
+        From<?, ?> from = root;
+        String prefix = "";
+        for (int i = 0; i < parts.length - 1; i++) {
+            prefix = prefix + parts[i] + ".";
+            From<?, ?> parent = from;
+            String attribute = parts[i];
+            from = joins.computeIfAbsent(prefix, p -> parent.join(attribute, JoinType.LEFT));
+        }
+        return from.get(parts[parts.length - 1]);
+    }
+}
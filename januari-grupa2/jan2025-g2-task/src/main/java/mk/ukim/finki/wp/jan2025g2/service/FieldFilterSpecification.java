@@ -4,6 +4,7 @@ import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
 
 public class FieldFilterSpecification {
 
@@ -45,6 +46,19 @@ public class FieldFilterSpecification {
         );
     }
 
+    /**
+     * @return null when there are no restricting values, or a predicate that never matches when the collection is empty.
+     */
+    public static <T, V> Specification<T> filterIn(Class<T> clazz, String field, Collection<V> values) {
+        if (values == null) {
+            return null;
+        }
+        if (values.isEmpty()) {
+            return (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
+        }
+        return (root, query, criteriaBuilder) -> fieldToPath(field, root).in(values);
+    }
+
     private static <T> Path<T> fieldToPath(String field, Root<T> root) {
         String[] parts = field.split("\\.");
         Path<T> res = root;
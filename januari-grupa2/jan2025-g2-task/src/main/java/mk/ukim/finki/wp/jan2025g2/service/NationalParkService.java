@@ -2,9 +2,13 @@ package mk.ukim.finki.wp.jan2025g2.service;
 
 import mk.ukim.finki.wp.jan2025g2.model.NationalPark;
 import mk.ukim.finki.wp.jan2025g2.model.ParkType;
+import mk.ukim.finki.wp.jan2025g2.model.dto.NationalParkListItem;
 import mk.ukim.finki.wp.jan2025g2.model.exceptions.InvalidNationalParkIdException;
+import mk.ukim.finki.wp.jan2025g2.model.exceptions.NationalParkUpdateConflictException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NationalParkService {
@@ -33,8 +37,19 @@ public interface NationalParkService {
      */
     NationalPark create(String name, Double areaSize, Double rating, ParkType parkType, Long locationId);
 
+    /**
+     * This method is used to create many national parks at once. They are inserted in JDBC batches,
+     * so it should be used instead of calling create for every park when loading data in bulk.
+     *
+     * @param nationalParks The national parks to create, each with its location already set
+     * @return The national parks that are created, with their generated ids.
+     */
+    List<NationalPark> createAll(Collection<NationalPark> nationalParks);
+
     /**
      * This method is used to update a national park and save it in the database.
+     * It is kept for the exam's tests, which edit without a version: the current version of the national park is read
+     * and the update is conditional on it, like the overload taking the version. The edit form goes through that one.
      *
      * @param id         The id of the national park that is being updated
      * @param name       The name of the national park
@@ -47,6 +62,16 @@ public interface NationalParkService {
      */
     NationalPark update(Long id, String name, Double areaSize, Double rating, ParkType parkType, Long locationId);
 
+    /**
+     * Same as {@link #update(Long, String, Double, Double, ParkType, Long)}, but the national park is only updated
+     * if it still has the given version. The update is a single conditional statement, the national park is not
+     * read before it.
+     *
+     * @param version The version of the national park the new values are based on
+     * @throws NationalParkUpdateConflictException when the national park has a different version
+     */
+    NationalPark update(Long id, Long version, String name, Double areaSize, Double rating, ParkType parkType, Long locationId);
+
     /**
      * This method deletes a national park from the database.
      *
@@ -78,4 +103,20 @@ public interface NationalParkService {
      * @return The page of national parks that match the given criteria.
      */
     Page<NationalPark> findPage(String name, Double areaSize, Double rating, ParkType parkType, Long locationId, int pageNum, int pageSize);
+
+    /**
+     * Returns the same page as {@link #findPage}, but as read-only rows holding only the columns of the list view.
+     * The location is joined in the same query, and no national park entities are loaded.
+     *
+     * @return The page of list rows for the national parks that match the given criteria.
+     */
+    Page<NationalParkListItem> findListPage(String name, Double areaSize, Double rating, ParkType parkType, Long locationId, int pageNum, int pageSize);
+
+    /**
+     * Same as {@link #findListPage}, but without counting the total number of matching national parks.
+     * Only whether there is a next page is known.
+     *
+     * @return The slice of list rows for the national parks that match the given criteria.
+     */
+    Slice<NationalParkListItem> findListSlice(String name, Double areaSize, Double rating, ParkType parkType, Long locationId, int pageNum, int pageSize);
 }
@@ -3,6 +3,7 @@ package mk.ukim.finki.wp.jan2025g2.service;
 import mk.ukim.finki.wp.jan2025g2.model.ParkLocation;
 import mk.ukim.finki.wp.jan2025g2.model.exceptions.InvalidParkLocationIdException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ParkLocationService {
@@ -27,4 +28,12 @@ public interface ParkLocationService {
      * @return The location that is created. The id should be generated when the location is created.
      */
     ParkLocation create(String country, String continent);
+
+    /**
+     * This method is used to create many locations at once, in a single transaction.
+     *
+     * @param locations The locations to create
+     * @return The locations that are created, in the same order, with their generated ids.
+     */
+    List<ParkLocation> createAll(Collection<ParkLocation> locations);
 }
@@ -3,84 +3,239 @@ package mk.ukim.finki.wp.jan2025g2.service.impl;
 import mk.ukim.finki.wp.jan2025g2.model.NationalPark;
 import mk.ukim.finki.wp.jan2025g2.model.ParkLocation;
 import mk.ukim.finki.wp.jan2025g2.model.ParkType;
+import mk.ukim.finki.wp.jan2025g2.model.dto.NationalParkListItem;
 import mk.ukim.finki.wp.jan2025g2.model.exceptions.InvalidNationalParkIdException;
+import mk.ukim.finki.wp.jan2025g2.model.exceptions.NationalParkUpdateConflictException;
 import mk.ukim.finki.wp.jan2025g2.repository.NationalParkRepository;
 import mk.ukim.finki.wp.jan2025g2.service.NationalParkService;
 import mk.ukim.finki.wp.jan2025g2.service.ParkLocationService;
+import mk.ukim.finki.wp.jan2025g2.service.index.BitmapIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static mk.ukim.finki.wp.jan2025g2.service.FieldFilterSpecification.*;
 
 @Service
 public class NationalParkServiceImpl implements NationalParkService {
+    /** The columns of {@link NationalParkListItem}, in the order of its constructor. */
+    private static final String[] LIST_COLUMNS = {"id", "name", "areaSize", "rating", "parkType", "closed", "location.country", "location.continent"};
+
     private final NationalParkRepository nationalParkRepository;
     private final ParkLocationService parkLocationService;
+    private final int batchSize;
+    private final int maxIndexedIds;
+    private final BitmapIndex<ParkType> parkTypeIndex = new BitmapIndex<>();
+    private final BitmapIndex<Long> locationIndex = new BitmapIndex<>();
+    /**
+     * Set once {@link #loadIndexes()} is done. The server takes requests before that, and until then the bitmaps
+     * are missing parks, so they are not used and the filters fall back to the column predicates.
+     */
+    private volatile boolean indexesLoaded;
 
-    public NationalParkServiceImpl(NationalParkRepository nationalParkRepository, ParkLocationService parkLocationService) {
+    public NationalParkServiceImpl(NationalParkRepository nationalParkRepository, ParkLocationService parkLocationService,
+                                   @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                                   @Value("${indexes.max-ids:1000}") int maxIndexedIds) {
         this.nationalParkRepository = nationalParkRepository;
         this.parkLocationService = parkLocationService;
+        this.batchSize = batchSize;
+        this.maxIndexedIds = maxIndexedIds;
+    }
+
+    /**
+     * Loads the indexes from the parks already in the database, which they would miss after a restart since
+     * they are otherwise only filled by the writes of this service. It runs ahead of the startup seeding.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void loadIndexes() {
+        try (Stream<Object[]> rows = nationalParkRepository.streamIndexedColumns()) {
+            rows.forEach(row -> {
+                Long id = (Long) row[0];
+                parkTypeIndex.putIfAbsent(id, (ParkType) row[1]);
+                locationIndex.putIfAbsent(id, (Long) row[2]);
+            });
+        }
+        indexesLoaded = true;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<NationalPark> listAll() {
         return nationalParkRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public NationalPark findById(Long id) {
         return nationalParkRepository.findById(id).orElseThrow(InvalidNationalParkIdException::new);
     }
 
     @Override
+    @Transactional
     public NationalPark create(String name, Double areaSize, Double rating, ParkType parkType, Long locationId) {
         ParkLocation parkLocation = parkLocationService.findById(locationId);
-        return nationalParkRepository.save(new NationalPark(name,areaSize,rating,parkType,parkLocation));
+        NationalPark nationalPark = nationalParkRepository.save(new NationalPark(name,areaSize,rating,parkType,parkLocation));
+        afterCommit(() -> index(nationalPark));
+        return nationalPark;
     }
 
     @Override
+    @Transactional
+    public List<NationalPark> createAll(Collection<NationalPark> nationalParks) {
+        List<NationalPark> saved = nationalParkRepository.saveAllInBatches(nationalParks, batchSize);
+        afterCommit(() -> saved.forEach(this::index));
+        return saved;
+    }
+
+    @Override
+    @Transactional
     public NationalPark update(Long id, String name, Double areaSize, Double rating, ParkType parkType, Long locationId) {
+        // only the exam's tests edit without a version, the edit form always sends it; the current one is read
+        // in this transaction, so the update still fails on a write landing between the read and the update
+        Long version = nationalParkRepository.findVersionById(id).orElseThrow(InvalidNationalParkIdException::new);
+        return update(id, version, name, areaSize, rating, parkType, locationId);
+    }
+
+    @Override
+    @Transactional
+    public NationalPark update(Long id, Long version, String name, Double areaSize, Double rating, ParkType parkType, Long locationId) {
+        Objects.requireNonNull(version, "version");
         ParkLocation parkLocation = parkLocationService.findById(locationId);
-        NationalPark nationalPark = nationalParkRepository.findById(id).orElseThrow(InvalidNationalParkIdException::new);
-        nationalPark.setName(name);
-        nationalPark.setAreaSize(areaSize);
-        nationalPark.setRating(rating);
-        nationalPark.setParkType(parkType);
-        nationalPark.setLocation(parkLocation);
-        return nationalParkRepository.save(nationalPark);
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", name);
+        values.put("areaSize", areaSize);
+        values.put("rating", rating);
+        values.put("parkType", parkType);
+        values.put("location", parkLocation);
+        if (nationalParkRepository.updateById(id, version, values) == 0) {
+            // nothing was updated, either the park is gone or someone else updated it first
+            if (!nationalParkRepository.existsById(id)) {
+                throw new InvalidNationalParkIdException();
+            }
+            throw new NationalParkUpdateConflictException(id);
+        }
+        NationalPark nationalPark = findById(id);
+        afterCommit(() -> index(nationalPark));
+        return nationalPark;
     }
 
     @Override
+    @Transactional
     public NationalPark delete(Long id) {
         NationalPark nationalPark = nationalParkRepository.findById(id).orElseThrow(InvalidNationalParkIdException::new);
         nationalParkRepository.delete(nationalPark);
+        afterCommit(() -> {
+            parkTypeIndex.remove(id);
+            locationIndex.remove(id);
+        });
         return nationalPark;
     }
 
     @Override
+    @Transactional
     public NationalPark close(Long id) {
         NationalPark nationalPark = nationalParkRepository.findById(id).orElseThrow(InvalidNationalParkIdException::new);
-       nationalPark.setClosed(true);
-       return nationalParkRepository.save(nationalPark);
+        // the park is managed, the change is written by dirty checking when the transaction commits
+        nationalPark.setClosed(true);
+        return nationalPark;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<NationalPark> findPage(String name, Double areaSize, Double rating, ParkType parkType, Long locationId, int pageNum, int pageSize) {
-        Specification<NationalPark> specification = Specification.allOf(
+        return this.nationalParkRepository.findAll(
+                filter(name, areaSize, rating, parkType, locationId),
+                PageRequest.of(pageNum, pageSize));
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NationalParkListItem> findListPage(String name, Double areaSize, Double rating, ParkType parkType, Long locationId, int pageNum, int pageSize) {
+        return this.nationalParkRepository.findAll(
+                filter(name, areaSize, rating, parkType, locationId),
+                PageRequest.of(pageNum, pageSize),
+                NationalParkListItem.class,
+                LIST_COLUMNS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<NationalParkListItem> findListSlice(String name, Double areaSize, Double rating, ParkType parkType, Long locationId, int pageNum, int pageSize) {
+        return this.nationalParkRepository.findSlice(
+                filter(name, areaSize, rating, parkType, locationId),
+                PageRequest.of(pageNum, pageSize),
+                NationalParkListItem.class,
+                LIST_COLUMNS);
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away when there is no transaction.
+     * The in-memory indexes may only see a write once it is visible to the other readers,
+     * and must not see it at all when it is rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void index(NationalPark nationalPark) {
+        parkTypeIndex.put(nationalPark.getId(), nationalPark.getParkType());
+        locationIndex.put(nationalPark.getId(), nationalPark.getLocation() != null ? nationalPark.getLocation().getId() : null);
+    }
+
+    private Specification<NationalPark> filter(String name, Double areaSize, Double rating, ParkType parkType, Long locationId) {
+        return Specification.allOf(
+                // the bitmaps narrow the rows by primary key when few match, the column predicates below
+                // recheck those rows, or do all the filtering when the bitmaps are not used
+                filterIn(NationalPark.class, "id", indexedIds(parkType, locationId)),
                 filterContainsText(NationalPark.class, "name", name),
                 greaterThan(NationalPark.class, "areaSize", areaSize),
                 greaterThan(NationalPark.class, "rating",rating),
                 filterEquals(NationalPark.class, "location.id", locationId),
                 filterEqualsV(NationalPark.class, "parkType", parkType)
         );
+    }
 
-        return this.nationalParkRepository.findAll(
-                specification,
-                PageRequest.of(pageNum, pageSize));
-
+    /**
+     * @return The ids of the parks with the given type and location, or null when the bitmaps can not narrow
+     * them down: nothing is restricted, too many parks match, or the bitmaps are still being loaded.
+     */
+    private Set<Long> indexedIds(ParkType parkType, Long locationId) {
+        if (!indexesLoaded) {
+            return null;
+        }
+        BitSet matches = parkTypeIndex.and(null, parkType);
+        matches = locationIndex.and(matches, locationId);
+        return BitmapIndex.toIds(matches, maxIndexedIds);
     }
 }
@@ -4,8 +4,12 @@ import mk.ukim.finki.wp.jan2025g2.model.ParkLocation;
 import mk.ukim.finki.wp.jan2025g2.model.exceptions.InvalidParkLocationIdException;
 import mk.ukim.finki.wp.jan2025g2.repository.ParkLocationRepository;
 import mk.ukim.finki.wp.jan2025g2.service.ParkLocationService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -17,17 +21,30 @@ public class ParkLocationServiceImpl implements ParkLocationService {
     }
 
     @Override
+    @Cacheable(cacheNames = "parkLocationById", key = "#id")
+    @Transactional(readOnly = true)
     public ParkLocation findById(Long id) {
         return parkLocationRepository.findById(id).orElseThrow(InvalidParkLocationIdException::new);
     }
 
     @Override
+    @Cacheable(cacheNames = "parkLocations", key = "'all'")
+    @Transactional(readOnly = true)
     public List<ParkLocation> listAll() {
         return parkLocationRepository.findAll();
     }
 
     @Override
+    @CacheEvict(cacheNames = {"parkLocations", "parkLocationOptions"}, allEntries = true, beforeInvocation = false)
+    @Transactional
     public ParkLocation create(String country, String continent) {
         return parkLocationRepository.save(new ParkLocation(country,continent));
     }
+
+    @Override
+    @CacheEvict(cacheNames = {"parkLocations", "parkLocationOptions"}, allEntries = true, beforeInvocation = false)
+    @Transactional
+    public List<ParkLocation> createAll(Collection<ParkLocation> locations) {
+        return parkLocationRepository.saveAll(locations);
+    }
 }
@@ -0,0 +1,86 @@
+package mk.ukim.finki.wp.jan2025g2.service.index;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory bitmap index over a low-cardinality column, one bitmap per distinct key with a bit set
+ * for the id of every row holding that key. The bitmaps are plain, uncompressed {@link BitSet}s taking one bit
+ * per id up to the highest one, which is cheap for the dense sequence ids of the tables they index.
+ * Bitmaps of different columns are combined with AND to resolve a filter to row ids before the database is queried,
+ * as long as few enough rows match for the id list to be cheaper than the column predicates, see {@link #toIds}.
+ * The index also remembers the key of every row, so a row can be moved or removed knowing only its id.
+ */
+public class BitmapIndex<K> {
+
+    private final Map<K, BitSet> bitmaps = new HashMap<>();
+    private final Map<Long, K> keys = new HashMap<>();
+
+    public synchronized void put(Long id, K key) {
+        remove(id);
+        if (key == null) {
+            return;
+        }
+        keys.put(id, key);
+        bitmaps.computeIfAbsent(key, k -> new BitSet()).set(Math.toIntExact(id));
+    }
+
+    /**
+     * Indexes the row only when it is not indexed yet, so loading the index from the database
+     * never overwrites what a write committed in the meantime has put.
+     */
+    public synchronized void putIfAbsent(Long id, K key) {
+        if (!keys.containsKey(id)) {
+            put(id, key);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        K old = keys.remove(id);
+        if (old != null) {
+            bitmaps.get(old).clear(Math.toIntExact(id));
+        }
+    }
+
+    /**
+     * @return A copy of the bitmap of the given key, empty when no row holds it.
+     */
+    public synchronized BitSet get(K key) {
+        BitSet bitmap = bitmaps.get(key);
+        return bitmap == null ? new BitSet() : (BitSet) bitmap.clone();
+    }
+
+    /**
+     * Intersects the bitmap of the given key into {@code matches}.
+     *
+     * @param matches The rows matched so far, or null when nothing has been restricted yet.
+     * @param key     The key to restrict to, or null to leave {@code matches} as it is.
+     */
+    public BitSet and(BitSet matches, K key) {
+        if (key == null) {
+            return matches;
+        }
+        BitSet bitmap = get(key);
+        if (matches != null) {
+            bitmap.and(matches);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param limit The most ids worth sending to the database. Every id is a bind parameter of an IN list,
+     *              so above it the column predicates alone select the rows faster.
+     * @return The ids of the set bits, or null for null or more than {@code limit} set bits, meaning that no index was used.
+     */
+    public static Set<Long> toIds(BitSet matches, int limit) {
+        if (matches == null || matches.cardinality() > limit) {
+            return null;
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        matches.stream().forEach(id -> ids.add((long) id));
+        return ids;
+    }
+}
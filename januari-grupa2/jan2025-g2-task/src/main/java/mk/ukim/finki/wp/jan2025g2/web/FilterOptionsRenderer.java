@@ -0,0 +1,49 @@
+package mk.ukim.finki.wp.jan2025g2.web;
+
+import mk.ukim.finki.wp.jan2025g2.model.ParkType;
+import mk.ukim.finki.wp.jan2025g2.service.ParkLocationService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Set;
+
+/**
+ * Renders the options of the dropdowns in the filter form of "list.html" from the "fragments/filter-options.html"
+ * template and caches the markup, so that a list page only pays for the options once per selected value.
+ * The park locations options are evicted together with the cached park locations once the transaction creating one commits,
+ * so the cache never outlives the version of the reference data it was rendered from.
+ * The names are written with {@code th:text} and so come out HTML-escaped, which is what lets "list.html"
+ * insert the cached markup with {@code th:utext}.
+ * It is used from the template as a bean, e.g. {@code ${@filterOptionsRenderer.locationOptions(locationId)}}.
+ */
+@Component
+public class FilterOptionsRenderer {
+
+    private static final String TEMPLATE = "fragments/filter-options";
+
+    private final ITemplateEngine templateEngine;
+    private final ParkLocationService parkLocationService;
+
+    public FilterOptionsRenderer(ITemplateEngine templateEngine, ParkLocationService parkLocationService) {
+        this.templateEngine = templateEngine;
+        this.parkLocationService = parkLocationService;
+    }
+
+    @Cacheable(cacheNames = "parkTypeOptions", key = "'' + #selected")
+    public String parkTypeOptions(ParkType selected) {
+        Context context = new Context();
+        context.setVariable("parkTypes", ParkType.values());
+        context.setVariable("parkType", selected);
+        return templateEngine.process(TEMPLATE, Set.of("parkTypeOptions"), context);
+    }
+
+    @Cacheable(cacheNames = "parkLocationOptions", key = "'' + #selected")
+    public String locationOptions(Long selected) {
+        Context context = new Context();
+        context.setVariable("parkLocations", parkLocationService.listAll());
+        context.setVariable("locationId", selected);
+        return templateEngine.process(TEMPLATE, Set.of("locationOptions"), context);
+    }
+}
@@ -0,0 +1,77 @@
+package mk.ukim.finki.wp.jan2025g2.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.ukim.finki.wp.jan2025g2.model.NationalPark;
+import mk.ukim.finki.wp.jan2025g2.model.ParkLocation;
+import mk.ukim.finki.wp.jan2025g2.model.ParkType;
+import mk.ukim.finki.wp.jan2025g2.model.dto.NationalParkListItem;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the statements and the loaded entities of reading a list page that renders the location of every park.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class NationalParkRepositoryTest {
+
+    private static final String[] LIST_COLUMNS = {"id", "name", "areaSize", "rating", "parkType", "closed", "location.country", "location.continent"};
+
+    @Autowired
+    private NationalParkRepository nationalParkRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            ParkLocation location = entityManager.persist(new ParkLocation("Country " + i, "Continent " + i));
+            for (int j = 1; j <= 4; j++) {
+                entityManager.persist(new NationalPark("Park " + i + "." + j, 100.0 * j, 3.0 + j, ParkType.NATIONAL_RESERVE, location));
+            }
+        }
+        // the rows are read back from the database, not from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listPageProjectionIsOneSelectWithoutEntities() {
+        Slice<NationalParkListItem> page = nationalParkRepository.findSlice(null, PageRequest.of(0, 10), NationalParkListItem.class, LIST_COLUMNS);
+
+        assertEquals(10, page.getNumberOfElements());
+        assertTrue(page.getContent().stream().allMatch(park -> park.getCountry() != null && park.getContinent() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void listPageOfEntitiesLoadsEveryParkAndSelectsTheLocationsSeparately() {
+        Slice<NationalPark> page = nationalParkRepository.findSlice(null, PageRequest.of(0, 10));
+        page.forEach(park -> park.getLocation().getCountry());
+
+        assertTrue(statistics.getEntityLoadCount() >= 10,
+                "expected every park to be loaded as an entity, got " + statistics.getEntityLoadCount());
+        assertTrue(statistics.getPrepareStatementCount() > 1,
+                "expected a select per location, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
@@ -1,4 +1,21 @@
 package mk.ukim.finki.wp.june2025g1.repository;
 
+import mk.ukim.finki.wp.june2025g1.model.Founder;
+
+import java.util.List;
+import java.util.Optional;
+
 public interface FounderRepository {
+
+    /**
+     * @return All founders, ordered by id.
+     */
+    List<Founder> findAll();
+
+    Optional<Founder> findById(Long id);
+
+    /**
+     * Stores the founder, generating its id when it does not have one yet.
+     */
+    Founder save(Founder founder);
 }
@@ -1,4 +1,54 @@
 package mk.ukim.finki.wp.june2025g1.repository;
 
+import mk.ukim.finki.wp.june2025g1.model.Industry;
+import mk.ukim.finki.wp.june2025g1.model.Startup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * The returned startups are copies, so changing them has no effect until they are saved.
+ */
 public interface StartupRepository {
+
+    /**
+     * @return All startups, ordered by id.
+     */
+    List<Startup> findAll();
+
+    /**
+     * @param ids    The ids to look up in ascending order, or null to go through all startups.
+     * @param filter The condition the returned startups have to satisfy.
+     * @return The startups with the given ids that satisfy the filter, ordered by id. The stream is lazy,
+     * a startup is only copied when it is consumed, so skipping and limiting it copies just the ones kept.
+     */
+    Stream<Startup> findAll(Stream<Long> ids, Predicate<Startup> filter);
+
+    /**
+     * @param ids    The ids to look up, or null to go through all startups.
+     * @param filter The condition the counted startups have to satisfy.
+     * @return The number of startups with the given ids that satisfy the filter, without copying any.
+     */
+    long count(Stream<Long> ids, Predicate<Startup> filter);
+
+    Optional<Startup> findById(Long id);
+
+    /**
+     * Stores the startup and updates the secondary indexes, generating its id when it does not have one yet.
+     */
+    Startup save(Startup startup);
+
+    void delete(Startup startup);
+
+    /**
+     * The following methods answer from the secondary indexes. The returned sets are read-only.
+     */
+    Set<Long> findIdsByIndustry(Industry industry);
+
+    Set<Long> findIdsByFounderId(Long founderId);
+
+    Set<Long> findIdsByYearFoundedGreaterThan(Integer yearFounded);
 }
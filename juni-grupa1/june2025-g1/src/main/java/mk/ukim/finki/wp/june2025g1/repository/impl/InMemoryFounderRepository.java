@@ -0,0 +1,37 @@
+package mk.ukim.finki.wp.june2025g1.repository.impl;
+
+import mk.ukim.finki.wp.june2025g1.model.Founder;
+import mk.ukim.finki.wp.june2025g1.repository.FounderRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Repository
+public class InMemoryFounderRepository implements FounderRepository {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, Founder> founders = new ConcurrentSkipListMap<>();
+
+    @Override
+    public List<Founder> findAll() {
+        return new ArrayList<>(founders.values());
+    }
+
+    @Override
+    public Optional<Founder> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(founders.get(id));
+    }
+
+    @Override
+    public Founder save(Founder founder) {
+        if (founder.getId() == null) {
+            founder.setId(sequence.incrementAndGet());
+        }
+        founders.put(founder.getId(), founder);
+        return founder;
+    }
+}
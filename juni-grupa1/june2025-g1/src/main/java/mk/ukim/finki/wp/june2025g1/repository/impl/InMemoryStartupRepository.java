@@ -0,0 +1,184 @@
+package mk.ukim.finki.wp.june2025g1.repository.impl;
+
+import mk.ukim.finki.wp.june2025g1.model.Industry;
+import mk.ukim.finki.wp.june2025g1.model.Startup;
+import mk.ukim.finki.wp.june2025g1.repository.StartupRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Startups kept in a concurrent sorted map by id, with secondary indexes from industry, founder id
+ * and founding year to the ids of the startups holding them. The ids of a key are kept sorted.
+ * <p>
+ * Readers never lock. Writers are serialized, so the primary map and the indexes are always updated
+ * by one writer at a time. The stored startups are never handed out or changed in place: every write stores
+ * a fresh copy and every read returns copies, so a reader can not observe a half-written startup.
+ * A write adds the new index entries of a startup before it removes the old ones it no longer holds,
+ * so a reader running alongside it finds the startup under its old key, its new key or both, but never
+ * under none. An index entry can thus be one write behind, which is why callers recheck their criteria
+ * on the startups they get.
+ */
+@Repository
+public class InMemoryStartupRepository implements StartupRepository {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, Startup> startups = new ConcurrentSkipListMap<>();
+
+    private final Map<Industry, Set<Long>> byIndustry = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> byFounderId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Set<Long>> byYearFounded = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Override
+    public List<Startup> findAll() {
+        List<Startup> result = new ArrayList<>(startups.size());
+        for (Startup startup : startups.values()) {
+            result.add(copy(startup));
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Startup> findAll(Stream<Long> ids, Predicate<Startup> filter) {
+        return candidates(ids).filter(filter).map(InMemoryStartupRepository::copy);
+    }
+
+    @Override
+    public long count(Stream<Long> ids, Predicate<Startup> filter) {
+        return candidates(ids).filter(filter).count();
+    }
+
+    @Override
+    public Optional<Startup> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(startups.get(id)).map(InMemoryStartupRepository::copy);
+    }
+
+    @Override
+    public Startup save(Startup startup) {
+        writeLock.lock();
+        try {
+            if (startup.getId() == null) {
+                startup.setId(sequence.incrementAndGet());
+            }
+            Startup stored = copy(startup);
+            Startup previous = startups.put(stored.getId(), stored);
+            index(stored);
+            if (previous != null) {
+                unindexChanged(previous, stored);
+            }
+            return startup;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Startup startup) {
+        writeLock.lock();
+        try {
+            Startup previous = startups.remove(startup.getId());
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Long> findIdsByIndustry(Industry industry) {
+        return view(byIndustry.get(industry));
+    }
+
+    @Override
+    public Set<Long> findIdsByFounderId(Long founderId) {
+        return view(byFounderId.get(founderId));
+    }
+
+    @Override
+    public Set<Long> findIdsByYearFoundedGreaterThan(Integer yearFounded) {
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> year : byYearFounded.tailMap(yearFounded, false).values()) {
+            ids.addAll(year);
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    private void index(Startup startup) {
+        add(byIndustry, startup.getIndustry(), startup.getId());
+        add(byFounderId, founderId(startup), startup.getId());
+        add(byYearFounded, startup.getYearFounded(), startup.getId());
+    }
+
+    private void unindex(Startup startup) {
+        remove(byIndustry, startup.getIndustry(), startup.getId());
+        remove(byFounderId, founderId(startup), startup.getId());
+        remove(byYearFounded, startup.getYearFounded(), startup.getId());
+    }
+
+    /**
+     * Removes the entries of the keys the startup held before a write and no longer holds.
+     * The entries of the keys it kept are left in place, so they never go missing in between.
+     */
+    private void unindexChanged(Startup previous, Startup stored) {
+        if (!Objects.equals(previous.getIndustry(), stored.getIndustry())) {
+            remove(byIndustry, previous.getIndustry(), previous.getId());
+        }
+        if (!Objects.equals(founderId(previous), founderId(stored))) {
+            remove(byFounderId, founderId(previous), previous.getId());
+        }
+        if (!Objects.equals(previous.getYearFounded(), stored.getYearFounded())) {
+            remove(byYearFounded, previous.getYearFounded(), previous.getId());
+        }
+    }
+
+    private Stream<Startup> candidates(Stream<Long> ids) {
+        return ids == null ? startups.values().stream() : ids.map(startups::get).filter(Objects::nonNull);
+    }
+
+    private static <K> void add(Map<K, Set<Long>> index, K key, Long id) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+        }
+    }
+
+    private static <K> void remove(Map<K, Set<Long>> index, K key, Long id) {
+        if (key != null) {
+            Set<Long> ids = index.get(key);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    private static Set<Long> view(Set<Long> ids) {
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    private static Long founderId(Startup startup) {
+        return startup.getFounder() != null ? startup.getFounder().getId() : null;
+    }
+
+    private static Startup copy(Startup startup) {
+        Startup copy = new Startup(startup.getName(), startup.getValuation(), startup.getYearFounded(),
+                startup.isActive(), startup.getIndustry(), startup.getFounder());
+        copy.setId(startup.getId());
+        return copy;
+    }
+}
@@ -1,4 +1,121 @@
 package mk.ukim.finki.wp.june2025g1.service.impl;
 
-public class StartupServiceImpl {
+import mk.ukim.finki.wp.june2025g1.model.Founder;
+import mk.ukim.finki.wp.june2025g1.model.Industry;
+import mk.ukim.finki.wp.june2025g1.model.Startup;
+import mk.ukim.finki.wp.june2025g1.model.exceptions.InvalidStartupIdException;
+import mk.ukim.finki.wp.june2025g1.repository.StartupRepository;
+import mk.ukim.finki.wp.june2025g1.service.FounderService;
+import mk.ukim.finki.wp.june2025g1.service.StartupService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+@Service
+public class StartupServiceImpl implements StartupService {
+    private final StartupRepository startupRepository;
+    private final FounderService founderService;
+
+    public StartupServiceImpl(StartupRepository startupRepository, FounderService founderService) {
+        this.startupRepository = startupRepository;
+        this.founderService = founderService;
+    }
+
+    @Override
+    public List<Startup> listAll() {
+        return startupRepository.findAll();
+    }
+
+    @Override
+    public Startup findById(Long id) {
+        return startupRepository.findById(id).orElseThrow(InvalidStartupIdException::new);
+    }
+
+    @Override
+    public Startup create(String name, Double valuation, Integer yearFounded, Industry industry, Long founderId) {
+        Founder founder = founderService.findById(founderId);
+        return startupRepository.save(new Startup(name, valuation, yearFounded, industry, founder));
+    }
+
+    @Override
+    public Startup update(Long id, String name, Double valuation, Integer yearFounded, Industry industry, Long founderId) {
+        Founder founder = founderService.findById(founderId);
+        Startup startup = startupRepository.findById(id).orElseThrow(InvalidStartupIdException::new);
+        startup.setName(name);
+        startup.setValuation(valuation);
+        startup.setYearFounded(yearFounded);
+        startup.setIndustry(industry);
+        startup.setFounder(founder);
+        return startupRepository.save(startup);
+    }
+
+    @Override
+    public Startup delete(Long id) {
+        Startup startup = startupRepository.findById(id).orElseThrow(InvalidStartupIdException::new);
+        startupRepository.delete(startup);
+        return startup;
+    }
+
+    @Override
+    public Startup deactivate(Long id) {
+        Startup startup = startupRepository.findById(id).orElseThrow(InvalidStartupIdException::new);
+        startup.setActive(false);
+        return startupRepository.save(startup);
+    }
+
+    @Override
+    public Page<Startup> findPage(String name, Double valuation, Integer yearFounded, Industry industry, Long founderId, int pageNum, int pageSize) {
+        // the indexed criteria are resolved to ids first, so only those startups are looked at;
+        // all criteria are still checked on them, since an index can be one concurrent write behind
+        List<Set<Long>> indexed = new ArrayList<>();
+        if (industry != null) {
+            indexed.add(startupRepository.findIdsByIndustry(industry));
+        }
+        if (founderId != null) {
+            indexed.add(startupRepository.findIdsByFounderId(founderId));
+        }
+        if (yearFounded != null) {
+            indexed.add(startupRepository.findIdsByYearFoundedGreaterThan(yearFounded));
+        }
+
+        Predicate<Startup> filter = startup -> (name == null || name.isEmpty() || startup.getName() != null && startup.getName().toLowerCase().contains(name.toLowerCase()))
+                && (valuation == null || startup.getValuation() != null && startup.getValuation() > valuation)
+                && (yearFounded == null || startup.getYearFounded() != null && startup.getYearFounded() > yearFounded)
+                && (industry == null || startup.getIndustry() == industry)
+                && (founderId == null || startup.getFounder() != null && founderId.equals(startup.getFounder().getId()));
+
+        // only the startups of the page are copied; the matches are counted without copying,
+        // and not at all when the page itself tells the total, like a first page that is not full
+        Pageable pageable = PageRequest.of(pageNum, pageSize);
+        List<Startup> content = startupRepository.findAll(intersect(indexed), filter)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> startupRepository.count(intersect(indexed), filter));
+    }
+
+    /**
+     * @return The ids present in all the given sets in ascending order, walking the smallest set and looking
+     * each id up in the others, or null when there are no sets, meaning no restriction.
+     */
+    private static Stream<Long> intersect(List<Set<Long>> sets) {
+        if (sets.isEmpty()) {
+            return null;
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        List<Set<Long>> others = sets.subList(1, sets.size());
+        // a no-op on the sorted sets of the indexes, only the ids of a range of years need sorting
+        return sets.get(0).stream()
+                .sorted()
+                .filter(id -> others.stream().allMatch(set -> set.contains(id)));
+    }
 }
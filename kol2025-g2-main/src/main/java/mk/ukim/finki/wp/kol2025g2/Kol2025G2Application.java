@@ -2,8 +2,10 @@ package mk.ukim.finki.wp.kol2025g2;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Kol2025G2Application {
 
     public static void main(String[] args) {
@@ -1,4 +1,23 @@
 package mk.ukim.finki.wp.kol2025g2.repository;
 
+import mk.ukim.finki.wp.kol2025g2.model.SkiSlope;
+
+import java.util.List;
+import java.util.Optional;
+
 public interface SkiSlopeRepository {
+
+    /**
+     * @return All ski slopes, ordered by id.
+     */
+    List<SkiSlope> findAll();
+
+    Optional<SkiSlope> findById(Long id);
+
+    /**
+     * Stores the ski slope, generating its id when it does not have one yet.
+     */
+    SkiSlope save(SkiSlope skiSlope);
+
+    void delete(SkiSlope skiSlope);
 }
@@ -0,0 +1,105 @@
+package mk.ukim.finki.wp.kol2025g2.repository.impl;
+
+import jakarta.annotation.PreDestroy;
+import mk.ukim.finki.wp.kol2025g2.model.SkiResort;
+import mk.ukim.finki.wp.kol2025g2.model.SkiSlope;
+import mk.ukim.finki.wp.kol2025g2.model.SlopeDifficulty;
+import mk.ukim.finki.wp.kol2025g2.repository.SkiResortRepository;
+import mk.ukim.finki.wp.kol2025g2.repository.SkiSlopeRepository;
+import mk.ukim.finki.wp.kol2025g2.repository.log.RecordCodec;
+import mk.ukim.finki.wp.kol2025g2.repository.log.RecordLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ski slopes stored in the "ski-slopes.log" record log of the storage directory.
+ * A slope record holds only the id of its ski resort, which is looked up when the slope is read.
+ */
+@Repository
+public class LogSkiSlopeRepository implements SkiSlopeRepository {
+
+    private final RecordLog<SkiSlope> log;
+    private final double compactionRatio;
+
+    public LogSkiSlopeRepository(@Value("${storage.dir}") Path storageDir,
+                                 @Value("${storage.compaction-ratio:0.5}") double compactionRatio,
+                                 SkiResortRepository skiResortRepository) {
+        this.log = new RecordLog<>(storageDir.resolve("ski-slopes.log"), new Codec(skiResortRepository));
+        this.compactionRatio = compactionRatio;
+    }
+
+    @Override
+    public List<SkiSlope> findAll() {
+        return log.readAll();
+    }
+
+    @Override
+    public Optional<SkiSlope> findById(Long id) {
+        return log.read(id);
+    }
+
+    @Override
+    public SkiSlope save(SkiSlope skiSlope) {
+        if (skiSlope.getId() == null) {
+            skiSlope.setId(log.nextId());
+        }
+        log.put(skiSlope.getId(), skiSlope);
+        return skiSlope;
+    }
+
+    @Override
+    public void delete(SkiSlope skiSlope) {
+        log.delete(skiSlope.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${storage.compaction-interval-ms:60000}")
+    public void compact() {
+        if (log.deadRatio() > compactionRatio) {
+            log.compact();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        log.close();
+    }
+
+    private static class Codec implements RecordCodec<SkiSlope> {
+
+        private final SkiResortRepository skiResortRepository;
+
+        Codec(SkiResortRepository skiResortRepository) {
+            this.skiResortRepository = skiResortRepository;
+        }
+
+        @Override
+        public void write(SkiSlope skiSlope, DataOutput out) throws IOException {
+            RecordCodec.writeString(out, skiSlope.getName());
+            RecordCodec.writeInteger(out, skiSlope.getLength());
+            RecordCodec.writeString(out, skiSlope.getDifficulty() != null ? skiSlope.getDifficulty().name() : null);
+            RecordCodec.writeLong(out, skiSlope.getSkiResort() != null ? skiSlope.getSkiResort().getId() : null);
+            out.writeBoolean(skiSlope.isClosed());
+        }
+
+        @Override
+        public SkiSlope read(long id, DataInput in) throws IOException {
+            String name = RecordCodec.readString(in);
+            Integer length = RecordCodec.readInteger(in);
+            String difficulty = RecordCodec.readString(in);
+            Long skiResortId = RecordCodec.readLong(in);
+            boolean closed = in.readBoolean();
+            SkiResort skiResort = skiResortRepository.findById(skiResortId).orElse(null);
+            SkiSlope skiSlope = new SkiSlope(name, length, difficulty != null ? SlopeDifficulty.valueOf(difficulty) : null, skiResort, closed);
+            skiSlope.setId(id);
+            return skiSlope;
+        }
+    }
+}
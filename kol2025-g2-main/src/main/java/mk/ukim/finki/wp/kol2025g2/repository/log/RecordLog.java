@@ -0,0 +1,351 @@
+package mk.ukim.finki.wp.kol2025g2.repository.log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only log of records kept in a memory-mapped file.
+ * <p>
+ * The file starts with a header of {@code [int magic][long lastId]}, where lastId is the highest id ever stored.
+ * It is kept in the header rather than derived from the records, as a compaction drops deleted records
+ * and with them the ids they held, which must not be handed out again.
+ * <p>
+ * Every change is a single record appended at the end of the log: a PUT with the full object, or a DELETE
+ * of an id. A record is laid out as {@code [int size][byte type][long id][payload]}, where size covers
+ * everything after itself. The size is written last, so a record cut short by a crash still reads as zero,
+ * which is where the log ends, as the mapped file is zero-filled beyond the last record. Any other size that
+ * does not fit a record, or that runs past the end of the file, means the file is corrupt and it is rejected.
+ * <p>
+ * Only the offset of the latest PUT of every id is kept in memory. It is rebuilt at startup by walking
+ * the record headers, without decoding any payload. Objects are decoded from the mapped file when read.
+ * <p>
+ * Records replaced or deleted stay in the file as dead bytes until {@link #compact()} rewrites the log
+ * with only the live records. The mapping, and with it the log, is limited to 2 GB.
+ * Appends are not forced to the disk one by one; the operating system writes the mapped pages back,
+ * so a record survives a crash of the process, and {@link #close()} and compaction force the file.
+ * <p>
+ * A log is written by one process only. While open, it holds an exclusive lock on a ".lock" file next to it,
+ * which outlives the replacement of the log file by a compaction, and opening a log that is already open fails.
+ */
+public class RecordLog<T> implements AutoCloseable {
+
+    private static final int MAGIC = 0x524C4F47;
+    /** magic + lastId */
+    private static final int FILE_HEADER = 4 + 8;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    /** type + id */
+    private static final int HEADER = 1 + 8;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    /**
+     * Lock files held by the logs open in this JVM. The file lock only keeps other processes out, and closing
+     * a second channel to a locked file may release the lock of the first one on some systems.
+     */
+    private static final Set<Path> LOCKED = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+    private final RecordCodec<T> codec;
+    private final ConcurrentSkipListMap<Long, Integer> offsets = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path lockFile;
+    private FileChannel lockChannel;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long deadBytes;
+
+    public RecordLog(Path file, RecordCodec<T> codec) {
+        this.file = file;
+        this.codec = codec;
+        this.lockFile = file.toAbsolutePath().normalize().resolveSibling(file.getFileName() + ".lock");
+        if (!LOCKED.add(lockFile)) {
+            throw new IllegalStateException("Record log " + file + " is already open");
+        }
+        try {
+            Files.createDirectories(lockFile.getParent());
+            lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (lockChannel.tryLock() == null) {
+                throw new IllegalStateException("Record log " + file + " is already open by another process");
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY));
+            readHeader();
+            scan();
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    /**
+     * @return A new id, greater than every id ever stored in the log.
+     */
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    public Optional<T> read(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer offset = id == null ? null : offsets.get(id);
+            return offset == null ? Optional.empty() : Optional.of(decode(offset));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return All live objects, ordered by id.
+     */
+    public List<T> readAll() {
+        lock.readLock().lock();
+        try {
+            List<T> values = new ArrayList<>(offsets.size());
+            for (Integer offset : offsets.values()) {
+                values.add(decode(offset));
+            }
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long id, T value) {
+        byte[] payload = encode(value);
+        lock.writeLock().lock();
+        try {
+            int offset = append(PUT, id, payload);
+            Integer previous = offsets.put(id, offset);
+            if (previous != null) {
+                deadBytes += recordSize(previous);
+            }
+            if (id > buffer.getLong(4)) {
+                buffer.putLong(4, id);
+            }
+            lastId.accumulateAndGet(id, Math::max);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = offsets.remove(id);
+            if (previous != null) {
+                int offset = append(DELETE, id, new byte[0]);
+                // neither the deleted record nor the tombstone survive a compaction
+                deadBytes += recordSize(previous) + recordSize(offset);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The share of the log taken by replaced or deleted records.
+     */
+    public double deadRatio() {
+        lock.readLock().lock();
+        try {
+            return position == FILE_HEADER ? 0 : (double) deadBytes / (position - FILE_HEADER);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the log with only the latest record of every live id, in id order, into a new file
+     * which then atomically replaces the old one.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            FileChannel newChannel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(INITIAL_CAPACITY, 2L * (position - deadBytes - FILE_HEADER) + FILE_HEADER));
+            newBuffer.putInt(0, MAGIC);
+            newBuffer.putLong(4, buffer.getLong(4));
+            Map<Long, Integer> moved = new HashMap<>();
+            int newPosition = FILE_HEADER;
+            for (Map.Entry<Long, Integer> entry : offsets.entrySet()) {
+                int size = recordSize(entry.getValue());
+                newBuffer.put(newPosition, buffer, entry.getValue(), size);
+                moved.put(entry.getKey(), newPosition);
+                newPosition += size;
+            }
+            newBuffer.force();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            offsets.putAll(moved);
+            channel.close();
+            channel = newChannel;
+            buffer = newBuffer;
+            position = newPosition;
+            deadBytes = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+            // closing the channel releases the lock
+            lockChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCKED.remove(lockFile);
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Releases what the constructor opened before it failed.
+     */
+    private void closeQuietly() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            // the constructor's exception is the one reported
+        } finally {
+            LOCKED.remove(lockFile);
+        }
+    }
+
+    /**
+     * Writes the header of a new, empty file, or checks the one of an existing file and restores the last id from it.
+     */
+    private void readHeader() {
+        int magic = buffer.getInt(0);
+        if (magic == 0 && buffer.getLong(4) == 0 && buffer.getInt(FILE_HEADER) == 0) {
+            buffer.putInt(0, MAGIC);
+        } else if (magic != MAGIC) {
+            throw new IllegalStateException("File " + file + " is not a record log");
+        }
+        lastId.set(buffer.getLong(4));
+        position = FILE_HEADER;
+    }
+
+    /**
+     * Rebuilds the offsets from the record headers, stopping at the first zero size.
+     */
+    private void scan() {
+        while (position + 4 <= buffer.capacity()) {
+            int size = buffer.getInt(position);
+            if (size == 0) {
+                break;
+            }
+            if (size < HEADER || size > buffer.capacity() - position - 4) {
+                throw new IllegalStateException("Record log " + file + " is corrupt: record of size " + size + " at offset " + position);
+            }
+            byte type = buffer.get(position + 4);
+            if (type != PUT && type != DELETE) {
+                throw new IllegalStateException("Record log " + file + " is corrupt: record of type " + type + " at offset " + position);
+            }
+            long id = buffer.getLong(position + 5);
+            Integer previous = type == PUT ? offsets.put(id, position) : offsets.remove(id);
+            if (previous != null) {
+                deadBytes += recordSize(previous);
+            }
+            if (type == DELETE) {
+                deadBytes += 4 + size;
+            }
+            lastId.accumulateAndGet(id, Math::max);
+            position += 4 + size;
+        }
+    }
+
+    private int append(byte type, long id, byte[] payload) {
+        int size = HEADER + payload.length;
+        ensureCapacity(4 + size);
+        int offset = position;
+        buffer.put(offset + 4, type);
+        buffer.putLong(offset + 5, id);
+        buffer.put(offset + 4 + HEADER, payload);
+        // publishing the size last makes the record visible to a scan only once it is complete
+        buffer.putInt(offset, size);
+        position += 4 + size;
+        return offset;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (position + needed <= buffer.capacity()) {
+            return;
+        }
+        long capacity = Math.max(2L * buffer.capacity(), (long) position + needed);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Record log " + file + " is full");
+        }
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int recordSize(int offset) {
+        return 4 + buffer.getInt(offset);
+    }
+
+    private byte[] encode(T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(value, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private T decode(int offset) {
+        int size = buffer.getInt(offset);
+        long id = buffer.getLong(offset + 5);
+        byte[] payload = new byte[size - HEADER];
+        buffer.get(offset + 4 + HEADER, payload);
+        try {
+            return codec.read(id, new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
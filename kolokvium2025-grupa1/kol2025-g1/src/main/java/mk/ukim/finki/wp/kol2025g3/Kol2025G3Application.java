@@ -1,12 +1,19 @@
 package mk.ukim.finki.wp.kol2025g3;
 
+import mk.ukim.finki.wp.kol2025g3.repository.impl.BaseJpaSpecificationRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
+@EnableJpaRepositories(repositoryBaseClass = BaseJpaSpecificationRepository.class)
 public class Kol2025G3Application {
 
     public static void main(String[] args) {
@@ -1,21 +1,63 @@
 package mk.ukim.finki.wp.kol2025g3.config;
 
-import jakarta.annotation.PostConstruct;
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
 import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import mk.ukim.finki.wp.kol2025g3.model.Vendor;
 import mk.ukim.finki.wp.kol2025g3.service.ExpenseService;
 import mk.ukim.finki.wp.kol2025g3.service.VendorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the database once the application is ready, with the sizes configured by the {@code seed.*} properties.
+ * Unless {@code seed.async} is false the seeding runs on its own thread, so startup does not wait for it and the
+ * rows are served as they are committed. Its progress is tracked by {@link SeedingProgress}.
+ * Without a {@code seed.random-seed} the rows follow the fixed formulas the tests rely on,
+ * with one every row is generated from the seed with realistic distributions instead.
+ */
 @Component
 public class DataInitializer {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
     private final VendorService vendorService;
     private final ExpenseService expenseService;
+    private final int vendorCount;
+    private final long rows;
+    private final Long randomSeed;
+    private final double vendorSkew;
+    private final BatchInserter inserter;
+    private final SeedingProgress progress;
+    private final boolean async;
 
-    public DataInitializer(VendorService vendorService, ExpenseService expenseService) {
+    public DataInitializer(VendorService vendorService, ExpenseService expenseService, SeedingProgress progress,
+                           @Value("${seed.vendors:5}") int vendorCount,
+                           @Value("${seed.rows:10}") long rows,
+                           @Value("${seed.batch-size:1000}") int batchSize,
+                           @Value("${seed.threads:1}") int threads,
+                           @Value("${seed.random-seed:#{null}}") Long randomSeed,
+                           @Value("${seed.vendor-skew:0}") double vendorSkew,
+                           @Value("${seed.async:true}") boolean async) {
         this.vendorService = vendorService;
         this.expenseService = expenseService;
+        this.vendorCount = vendorCount;
+        this.rows = rows;
+        this.randomSeed = randomSeed;
+        this.vendorSkew = vendorSkew;
+        this.inserter = new BatchInserter(batchSize, threads, randomSeed == null ? 0 : randomSeed);
+        this.progress = progress;
+        this.async = async;
     }
 
 
@@ -23,14 +65,61 @@ public class DataInitializer {
         if (i % 2 == 0) return ExpenseCategory.FOOD;
         return ExpenseCategory.DRINK;
     }
-    @PostConstruct
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!async) {
+            initData();
+            return;
+        }
+        Thread seeder = new Thread(this::initData, "data-initializer");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
     public void initData() {
-        for (int i = 1; i < 6; i++) {
-            this.vendorService.create("Vendor: " + i);
+        this.progress.start(rows);
+        try {
+            seed();
+            this.progress.finish();
+        } catch (RuntimeException e) {
+            log.error("Seeding failed", e);
+            this.progress.fail(e);
+            if (!async) {
+                throw e;
+            }
         }
+    }
 
-        for (int i = 1; i < 11; i++) {
-            this.expenseService.create("Expense: " + i, LocalDate.now().minusYears(25 + i), i * 10.0, 0, this.randomize(i), this.vendorService.listAll().get((i - 1) % 5).getId());
+    private void seed() {
+        List<Vendor> newVendors = new ArrayList<>();
+        for (int i = 1; i <= vendorCount; i++) {
+            newVendors.add(new Vendor("Vendor: " + i));
         }
+        // the vendors are read once here, not once per expense
+        List<Vendor> vendors = this.vendorService.createAll(newVendors);
+        double[] vendorWeights = BatchInserter.zipf(vendors.size(), vendorSkew);
+        LocalDate today = LocalDate.now();
+
+        this.inserter.insert("expenses", rows, (i, random) -> randomSeed == null
+                ? fixtureExpense((int) i, today, vendors)
+                : randomExpense(i, random, today, vendors, vendorWeights), chunk -> {
+                    this.expenseService.createAll(chunk);
+                    this.progress.add(chunk.size());
+                });
+    }
+
+    private Expense fixtureExpense(int i, LocalDate today, List<Vendor> vendors) {
+        return new Expense("Expense: " + i, today.minusYears(25 + i), i * 10.0, 0, this.randomize(i),
+                vendors.get((i - 1) % vendors.size()));
+    }
+
+    private Expense randomExpense(long i, Random random, LocalDate today, List<Vendor> vendors, double[] vendorWeights) {
+        LocalDate dateCreated = today.minusDays(random.nextInt(3650));
+        // log-normal, mostly small expenses with a long tail of large ones around a median of ~50
+        Double amount = Math.round(Math.exp(3.9 + random.nextGaussian()) * 100) / 100.0;
+        Integer daysToExpire = random.nextInt(31);
+        ExpenseCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        Vendor vendor = vendors.get(BatchInserter.pick(vendorWeights, random));
+        return new Expense("Expense: " + i, dateCreated, amount, daysToExpire, category, vendor);
     }
 }
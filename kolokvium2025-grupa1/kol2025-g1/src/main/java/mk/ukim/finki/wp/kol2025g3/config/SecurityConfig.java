@@ -58,7 +58,7 @@ public class SecurityConfig {
                         .frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin)
                 )
                 .authorizeHttpRequests((requests) -> requests
-                        .requestMatchers("/", "/expenses")
+                        .requestMatchers("/", "/expenses", "/seeding")
                         .permitAll()
 //                        .requestMatchers("/admin/**").hasRole("ADMIN")
                                 .requestMatchers("/**" ).hasRole("ADMIN")
@@ -9,10 +9,21 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @Entity
+// vendor alone or with category, and category alone.
+// The list is only read in offset pages, with no keyset windows to seek, so unlike jan2025-g1 the indexes do not end in the id.
+@Table(indexes = {
+        @Index(name = "idx_expense_vendor_category", columnList = "vendor_id, expense_category"),
+        @Index(name = "idx_expense_category", columnList = "expense_category"),
+        @Index(name = "idx_expense_title", columnList = "title")
+})
 public class Expense {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", allocationSize = 50)
     private Long id;
+    /** Incremented on every update, edit forms send it back so that concurrent edits are detected. */
+    @Version
+    private Long version;
 
     private String title;
 
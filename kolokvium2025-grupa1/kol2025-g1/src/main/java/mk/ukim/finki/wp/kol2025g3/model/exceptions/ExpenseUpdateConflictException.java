@@ -0,0 +1,14 @@
+package mk.ukim.finki.wp.kol2025g3.model.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the expense that is being updated was changed by someone else since the version the update is based on.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ExpenseUpdateConflictException extends RuntimeException {
+    public ExpenseUpdateConflictException(Long id) {
+        super(String.format("The expense with id %d was changed in the meantime", id));
+    }
+}
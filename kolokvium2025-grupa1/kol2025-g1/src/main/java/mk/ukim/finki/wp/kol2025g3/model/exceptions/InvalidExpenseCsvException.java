@@ -0,0 +1,14 @@
+package mk.ukim.finki.wp.kol2025g3.model.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an uploaded CSV of expenses cannot be imported at all, as opposed to single rows of it.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidExpenseCsvException extends RuntimeException {
+    public InvalidExpenseCsvException(String message) {
+        super(message);
+    }
+}
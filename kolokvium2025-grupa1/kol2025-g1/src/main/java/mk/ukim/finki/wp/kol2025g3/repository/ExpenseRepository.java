@@ -1,6 +1,37 @@
 package mk.ukim.finki.wp.kol2025g3.repository;
 
 import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ExpenseRepository extends  JpaSpecificationRepository<Expense,Long> {
+
+    /**
+     * Streams the id, category and vendor id of every expense, the columns the in-memory indexes are loaded from.
+     */
+    @Query("select e.id, e.expenseCategory, v.id from Expense e left join e.vendor v")
+    Stream<Object[]> streamIndexedColumns();
+
+    /**
+     * @return The current version of the expense with the given id, empty when there is none.
+     */
+    @Query("select e.version from Expense e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Adds the days to the expiration of the expense with a single atomic increment in the database,
+     * so concurrent extensions are never lost. The version is incremented too, so edits based on the
+     * previous days to expire are rejected.
+     *
+     * @return The number of updated rows, 0 when the expense does not exist.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Expense e set e.daysToExpire = coalesce(e.daysToExpire, 0) + :days, e.version = e.version + 1 where e.id = :id")
+    int extendExpiration(@Param("id") Long id, @Param("days") int days);
 }
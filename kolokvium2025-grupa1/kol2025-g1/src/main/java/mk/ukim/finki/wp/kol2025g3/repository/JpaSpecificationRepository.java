@@ -2,12 +2,52 @@ package mk.ukim.finki.wp.kol2025g3.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
 @NoRepositoryBean
 public interface JpaSpecificationRepository<T, ID> extends JpaRepository<T, ID> {
     Page<T> findAll(Specification<T> filter, Pageable pageable);
+
+    /**
+     * Same as {@link #findAll(Specification, Pageable)}, but without the count query.
+     * One row more than the page size is fetched to tell whether there is a next slice.
+     */
+    Slice<T> findSlice(Specification<T> filter, Pageable pageable);
+
+    /**
+     * Streams the entities matching the filter, reading them from the database {@code fetchSize} rows at a time
+     * instead of materializing the whole result. Every entity is detached as it is handed out, so the persistence
+     * context does not grow with the result either.
+     * It has to be called in a transaction, and the stream has to be closed to release the cursor.
+     *
+     * @param fetches The associations that are fetched in the same select, instead of with one select per row.
+     */
+    Stream<T> stream(Specification<T> filter, Sort sort, int fetchSize, String... fetches);
+
+    /**
+     * Saves the entities in one transaction, flushing and clearing the persistence context after every
+     * {@code batchSize} entities, so they are sent as JDBC batches and the context does not keep growing.
+     * The returned entities are detached.
+     */
+    <S extends T> List<S> saveAllInBatches(Iterable<S> entities, int batchSize);
+
+    /**
+     * Sets the given attributes of the row with the given id with a single conditional UPDATE, without loading it.
+     * When the entity has a version attribute it is incremented, and when a version is given the row is only
+     * updated if it still has that version, which is how concurrent edits are detected without locking.
+     *
+     * @param version The version the new values are based on, or null to update the row whatever its version.
+     * @param values  The new values by attribute name.
+     * @return The number of updated rows, 0 when there is no row with the id or it has a different version.
+     */
+    int updateById(ID id, Long version, Map<String, ?> values);
 }
 
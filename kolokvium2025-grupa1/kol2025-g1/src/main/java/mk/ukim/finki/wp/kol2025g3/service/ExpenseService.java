@@ -2,12 +2,17 @@ package mk.ukim.finki.wp.kol2025g3.service;
 
 import mk.ukim.finki.wp.kol2025g3.model.Expense;
 import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import mk.ukim.finki.wp.kol2025g3.model.exceptions.ExpenseUpdateConflictException;
 import mk.ukim.finki.wp.kol2025g3.model.exceptions.InvalidExpenseIdException;
 import mk.ukim.finki.wp.kol2025g3.model.exceptions.InvalidVendorIdException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ExpenseService {
 
@@ -37,8 +42,19 @@ public interface ExpenseService {
      */
     Expense create(String title, LocalDate dateCreated, Double amount, Integer daysToExpire, ExpenseCategory expenseCategory, Long vendorId);
 
+    /**
+     * This method is used to create many expenses at once. They are inserted in JDBC batches,
+     * so it should be used instead of calling create for every expense when loading data in bulk.
+     *
+     * @param expenses The expenses to create, each with its vendor already set
+     * @return The expenses that are created, with their generated ids.
+     */
+    List<Expense> createAll(Collection<Expense> expenses);
+
     /**
      * This method is used to update an expense, and save it in the database.
+     * It is kept for the exam's tests, which edit without a version: the current version of the expense is read
+     * and the update is conditional on it, like the overload taking the version. The edit form goes through that one.
      *
      * @param id              The id of the expense that is being updated
      * @param title           The new title of the expense
@@ -53,6 +69,18 @@ public interface ExpenseService {
      */
     Expense update(Long id, String title, LocalDate dateCreated, Double amount, Integer daysToExpire, ExpenseCategory expenseCategory, Long vendorId);
 
+    /**
+     * Same as {@link #update(Long, String, LocalDate, Double, Integer, ExpenseCategory, Long)}, but the expense
+     * is only updated if it still has the given version. The update is a single conditional statement,
+     * the expense is not read before it.
+     * Extensions of the expiration that are still buffered are written first and change the version,
+     * so an edit made while any are pending fails with a conflict instead of overwriting them.
+     *
+     * @param version The version of the expense the new values are based on
+     * @throws ExpenseUpdateConflictException when the expense has a different version, or buffered extensions
+     */
+    Expense update(Long id, Long version, String title, LocalDate dateCreated, Double amount, Integer daysToExpire, ExpenseCategory expenseCategory, Long vendorId);
+
     /**
      * @param id The id of the expense that we want to delete
      * @return The expense that is deleted.
@@ -63,6 +91,8 @@ public interface ExpenseService {
     /**
      * This method should implement the logic for extending the expiration of an expense,
      * by adding one day to the daysToExpire.
+     * The extension is buffered and written together with the other extensions of the same expense,
+     * reads add the buffered extensions to the days to expire until then.
      *
      * @param id The id of the expense that we want to extend the expiration
      * @return The expense, which expiration is extended.
@@ -70,6 +100,14 @@ public interface ExpenseService {
      */
     Expense extendExpiration(Long id);
 
+    /**
+     * Writes the buffered extensions of the expiration, one atomic increment per extended expense.
+     * It is called on a fixed delay, and by extendExpiration once too many expenses have unwritten extensions.
+     *
+     * @return The number of expenses that were written.
+     */
+    int flushExtensions();
+
     /**
      * Returns a page of expenses that match the given criteria.
      *
@@ -81,4 +119,30 @@ public interface ExpenseService {
      * @return The page of expenses that match the given criteria.
      */
     Page<Expense> findPage(String title, ExpenseCategory expenseCategory, Long vendor, int pageNum, int pageSize);
+
+    /**
+     * Same as {@link #findPage}, but without counting the total number of matching expenses.
+     * Only whether there is a next page is known.
+     *
+     * @return The slice of expenses that match the given criteria.
+     */
+    Slice<Expense> findSlice(String title, ExpenseCategory expenseCategory, Long vendor, int pageNum, int pageSize);
+
+    /**
+     * Hands every expense that matches the given criteria to the consumer, in the order of their ids.
+     * The expenses are streamed from the database and detached one by one, so any number of them
+     * can be processed without holding them all in memory.
+     *
+     * @param title           The title which the expenses should contain.
+     * @param expenseCategory The category of the expenses.
+     * @param vendor          The id of the vendor that the expenses are related to.
+     * @param consumer        Called once for each matching expense, with its vendor loaded.
+     * @return The number of expenses handed to the consumer.
+     */
+    long forEachMatching(String title, ExpenseCategory expenseCategory, Long vendor, Consumer<Expense> consumer);
+
+    /**
+     * @return The hit, miss, eviction and invalidation counters and the current size of the findPage cache.
+     */
+    Map<String, Long> pageCacheStats();
 }
@@ -3,83 +3,356 @@ package mk.ukim.finki.wp.kol2025g3.service.Impl;
 import mk.ukim.finki.wp.kol2025g3.model.Expense;
 import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
 import mk.ukim.finki.wp.kol2025g3.model.Vendor;
+import mk.ukim.finki.wp.kol2025g3.model.exceptions.ExpenseUpdateConflictException;
 import mk.ukim.finki.wp.kol2025g3.model.exceptions.InvalidExpenseIdException;
 import mk.ukim.finki.wp.kol2025g3.repository.ExpenseRepository;
 import mk.ukim.finki.wp.kol2025g3.service.ExpenseService;
 import mk.ukim.finki.wp.kol2025g3.service.VendorService;
+import mk.ukim.finki.wp.kol2025g3.service.buffer.ExpirationExtensionBuffer;
+import mk.ukim.finki.wp.kol2025g3.service.cache.ExpensePageCache;
+import mk.ukim.finki.wp.kol2025g3.service.index.BitmapIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static mk.ukim.finki.wp.kol2025g3.service.FieldFilterSpecification.*;
 @Service
 public class ExpenseServiceImpl implements ExpenseService {
     private final ExpenseRepository expenseRepository;
     private final VendorService vendorService;
+    private final ExpensePageCache pageCache;
+    private final ExpirationExtensionBuffer extensions;
+    private final int batchSize;
+    private final int exportFetchSize;
+    private final int maxIndexedIds;
+    private final int maxPendingExtensions;
+    private final BitmapIndex<ExpenseCategory> categoryIndex = new BitmapIndex<>();
+    private final BitmapIndex<Long> vendorIndex = new BitmapIndex<>();
+    /**
+     * Set once {@link #loadIndexes()} is done. The server takes requests before that, and until then the bitmaps
+     * are missing rows, so they are not used and the filters fall back to the column predicates.
+     */
+    private volatile boolean indexesLoaded;
 
-    public ExpenseServiceImpl(ExpenseRepository expenseRepository, VendorService vendorService) {
+    public ExpenseServiceImpl(ExpenseRepository expenseRepository, VendorService vendorService, ExpensePageCache pageCache,
+                              ExpirationExtensionBuffer extensions,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                              @Value("${expenses.export.fetch-size:1000}") int exportFetchSize,
+                              @Value("${indexes.max-ids:1000}") int maxIndexedIds,
+                              @Value("${expenses.extensions.max-pending:1000}") int maxPendingExtensions) {
         this.expenseRepository = expenseRepository;
         this.vendorService = vendorService;
+        this.pageCache = pageCache;
+        this.extensions = extensions;
+        this.batchSize = batchSize;
+        this.exportFetchSize = exportFetchSize;
+        this.maxIndexedIds = maxIndexedIds;
+        this.maxPendingExtensions = maxPendingExtensions;
+    }
+
+    /**
+     * Loads the indexes from the expenses already in the database, which they would miss after a restart since
+     * they are otherwise only filled by the writes of this service. It runs ahead of the startup seeding.
+     * The pages cached in the meantime were read without the indexes, they are dropped anyway once the indexes are in use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void loadIndexes() {
+        try (Stream<Object[]> rows = expenseRepository.streamIndexedColumns()) {
+            rows.forEach(row -> {
+                Long id = (Long) row[0];
+                categoryIndex.putIfAbsent(id, (ExpenseCategory) row[1]);
+                vendorIndex.putIfAbsent(id, (Long) row[2]);
+            });
+        }
+        indexesLoaded = true;
+        pageCache.invalidateAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Expense> listAll() {
-        return  expenseRepository.findAll();
+        return  expenseRepository.findAll().stream().map(this::withPendingExtensions).toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Expense findById(Long id) {
-        return expenseRepository.findById(id).orElseThrow(InvalidExpenseIdException::new);
+        return withPendingExtensions(expenseRepository.findById(id).orElseThrow(InvalidExpenseIdException::new));
     }
 
     @Override
+    @Transactional
     public Expense create(String title, LocalDate dateCreated, Double amount, Integer daysToExpire, ExpenseCategory expenseCategory, Long vendorId) {
         Vendor vendor = vendorService.findById(vendorId);
-        return expenseRepository.save(new Expense(title,dateCreated,amount,daysToExpire,expenseCategory,vendor));
+        Expense expense = expenseRepository.save(new Expense(title,dateCreated,amount,daysToExpire,expenseCategory,vendor));
+        afterCommit(() -> {
+            index(expense);
+            invalidate(expense);
+        });
+        return expense;
+    }
+
+    @Override
+    @Transactional
+    public List<Expense> createAll(Collection<Expense> expenses) {
+        List<Expense> saved = expenseRepository.saveAllInBatches(expenses, batchSize);
+        afterCommit(() -> {
+            saved.forEach(this::index);
+            pageCache.invalidateAll();
+        });
+        return saved;
     }
 
     @Override
+    @Transactional
     public Expense update(Long id, String title, LocalDate dateCreated, Double amount, Integer daysToExpire, ExpenseCategory expenseCategory, Long vendorId) {
+        // only the exam's tests edit without a version, the edit form always sends it; the current one is read
+        // in this transaction, so the update still fails on a write landing between the read and the update
+        Long version = expenseRepository.findVersionById(id).orElseThrow(InvalidExpenseIdException::new);
+        return update(id, version, title, dateCreated, amount, daysToExpire, expenseCategory, vendorId);
+    }
+
+    @Override
+    @Transactional
+    public Expense update(Long id, Long version, String title, LocalDate dateCreated, Double amount, Integer daysToExpire, ExpenseCategory expenseCategory, Long vendorId) {
+        Objects.requireNonNull(version, "version");
         Vendor vendor = vendorService.findById(vendorId);
+        // the buffered extensions of the expense are written first, in this transaction, so they bump its version
+        // and the version check below fails instead of overwriting them; they are buffered again on a rollback.
+        // Drains are held off until the transaction completes, a drain in progress is waited for
+        extensions.hold();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                extensions.release();
+            }
+        });
+        extensions.drain(id, (extended, days) -> {
+            expenseRepository.extendExpiration(id, Math.toIntExact(days));
+            afterRollback(() -> extensions.add(extended, Math.toIntExact(days)));
+        });
+        Map<String, Object> values = new HashMap<>();
+        values.put("title", title);
+        values.put("dateCreated", dateCreated);
+        values.put("amount", amount);
+        values.put("daysToExpire", daysToExpire);
+        values.put("expenseCategory", expenseCategory);
+        values.put("vendor", vendor);
+        // the expense is not read before the update, its previous category and vendor are known from the indexes
+        ExpenseCategory previousCategory = categoryIndex.keyOf(id);
+        Long previousVendor = vendorIndex.keyOf(id);
+        boolean previousKnown = indexesLoaded;
+        if (expenseRepository.updateById(id, version, values) == 0) {
+            // nothing was updated, either the expense is gone or someone else updated it first
+            if (!expenseRepository.existsById(id)) {
+                throw new InvalidExpenseIdException();
+            }
+            throw new ExpenseUpdateConflictException(id);
+        }
         Expense expense = expenseRepository.findById(id).orElseThrow(InvalidExpenseIdException::new);
-        expense.setTitle(title);
-        expense.setDateCreated(dateCreated);
-        expense.setAmount(amount);
-        expense.setDaysToExpire(daysToExpire);
-        expense.setExpenseCategory(expenseCategory);
-        expense.setVendor(vendor);
-        return expenseRepository.save(expense);
+        afterCommit(() -> {
+            if (previousKnown) {
+                pageCache.invalidateAnyTitle(previousCategory, previousVendor);
+            } else {
+                // the indexes were still loading, so the previous category and vendor may not be known
+                pageCache.invalidateAll();
+            }
+            index(expense);
+            invalidate(expense);
+        });
+        return expense;
     }
 
     @Override
+    @Transactional
     public Expense delete(Long id) {
         Expense expense = expenseRepository.findById(id).orElseThrow(InvalidExpenseIdException::new);
         expenseRepository.delete(expense);
+        afterCommit(() -> {
+            extensions.discard(id);
+            categoryIndex.remove(id);
+            vendorIndex.remove(id);
+            invalidate(expense);
+        });
         return expense;
     }
 
     @Override
     public Expense extendExpiration(Long id) {
+        // no transaction, the expense is only read; the extension is buffered and written by flushExtensions
         Expense expense = expenseRepository.findById(id).orElseThrow(InvalidExpenseIdException::new);
-      expense.setDaysToExpire(expense.getDaysToExpire()+1);
-        return expenseRepository.save(expense);
+        long pendingDays = extensions.add(expense, 1);
+        if (extensions.size() >= maxPendingExtensions) {
+            flushExtensions();
+        }
+        return withDaysToExpire(expense, (expense.getDaysToExpire() != null ? expense.getDaysToExpire() : 0) + pendingDays);
     }
 
     @Override
+    @Scheduled(fixedDelayString = "${expenses.extensions.flush-interval-ms:200}")
+    public int flushExtensions() {
+        return extensions.drain((expense, days) -> {
+            expenseRepository.extendExpiration(expense.getId(), Math.toIntExact(days));
+            // only now the new value can be read, so the pages holding the expense are dropped after the write
+            invalidate(expense);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<Expense> findPage(String title, ExpenseCategory expenseCategory, Long vendor, int pageNum, int pageSize) {
-        Specification<Expense> specification = Specification.allOf(
+        Page<Expense> page = pageCache.get(title, expenseCategory, vendor, pageNum, pageSize, true,
+                () -> this.expenseRepository.findAll(filter(title, expenseCategory, vendor), PageRequest.of(pageNum, pageSize)));
+        return extensions.isEmpty() ? page : page.map(this::withPendingExtensions);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Expense> findSlice(String title, ExpenseCategory expenseCategory, Long vendor, int pageNum, int pageSize) {
+        Slice<Expense> slice = pageCache.get(title, expenseCategory, vendor, pageNum, pageSize, false,
+                () -> this.expenseRepository.findSlice(filter(title, expenseCategory, vendor), PageRequest.of(pageNum, pageSize)));
+        return extensions.isEmpty() ? slice : slice.map(this::withPendingExtensions);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachMatching(String title, ExpenseCategory expenseCategory, Long vendor, Consumer<Expense> consumer) {
+        long count = 0;
+        // the vendor is fetched with the expense, it is needed for every row and would otherwise be a select each
+        try (Stream<Expense> expenses = this.expenseRepository.stream(columnFilter(title, expenseCategory, vendor),
+                Sort.by("id"), exportFetchSize, "vendor")) {
+            for (Iterator<Expense> iterator = expenses.iterator(); iterator.hasNext(); count++) {
+                consumer.accept(withPendingExtensions(iterator.next()));
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> pageCacheStats() {
+        return pageCache.stats();
+    }
+
+    private Specification<Expense> filter(String title, ExpenseCategory expenseCategory, Long vendor) {
+        return Specification.allOf(
+                // the bitmaps narrow the rows by primary key when few match, the column predicates
+                // recheck those rows, or do all the filtering when the bitmaps are not used
+                filterIn(Expense.class, "id", indexedIds(expenseCategory, vendor)),
+                columnFilter(title, expenseCategory, vendor)
+        );
+    }
+
+    /**
+     * @return The ids of the expenses with the given category and vendor, or null when the indexes can not narrow
+     * them down: nothing is restricted, too many expenses match, or the indexes are still being loaded.
+     */
+    private Set<Long> indexedIds(ExpenseCategory expenseCategory, Long vendor) {
+        if (!indexesLoaded) {
+            return null;
+        }
+        BitSet matches = categoryIndex.and(null, expenseCategory);
+        matches = vendorIndex.and(matches, vendor);
+        return BitmapIndex.toIds(matches, maxIndexedIds);
+    }
+
+    /**
+     * The filter on the columns alone, for reads that can match too many rows to be narrowed by a list of ids.
+     */
+    private static Specification<Expense> columnFilter(String title, ExpenseCategory expenseCategory, Long vendor) {
+        return Specification.allOf(
                 filterContainsText(Expense.class, "title", title),
                 filterEquals(Expense.class, "vendor.id", vendor),
                 filterEqualsV(Expense.class, "expenseCategory",expenseCategory)
         );
+    }
 
-        return this.expenseRepository.findAll(
-                specification,
-                PageRequest.of(pageNum, pageSize));
+    /**
+     * @return The expense with its unwritten extensions added to the days to expire, as a copy when there are any.
+     * Neither the cached nor the managed entities are changed, the latter would otherwise write the days themselves.
+     */
+    private Expense withPendingExtensions(Expense expense) {
+        long pendingDays = extensions.pending(expense.getId());
+        if (pendingDays == 0) {
+            return expense;
+        }
+        return withDaysToExpire(expense, (expense.getDaysToExpire() != null ? expense.getDaysToExpire() : 0) + pendingDays);
+    }
+
+    private static Expense withDaysToExpire(Expense expense, long daysToExpire) {
+        Expense copy = new Expense(expense.getTitle(), expense.getDateCreated(), expense.getAmount(), Math.toIntExact(daysToExpire),
+                expense.getExpenseCategory(), expense.getVendor());
+        copy.setId(expense.getId());
+        copy.setVersion(expense.getVersion());
+        return copy;
+    }
+
+    /**
+     * Drops the cached pages that can contain the expense with its current values.
+     */
+    private void invalidate(Expense expense) {
+        pageCache.invalidate(expense.getTitle(), expense.getExpenseCategory(), expense.getVendor() != null ? expense.getVendor().getId() : null);
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away when there is no transaction.
+     * The in-memory indexes and caches may only see a write once it is visible to the other readers,
+     * and must not see it at all when it is rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the action once the current transaction is rolled back.
+     */
+    private static void afterRollback(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
 
+    private void index(Expense expense) {
+        categoryIndex.put(expense.getId(), expense.getExpenseCategory());
+        vendorIndex.put(expense.getId(), expense.getVendor() != null ? expense.getVendor().getId() : null);
     }
 }
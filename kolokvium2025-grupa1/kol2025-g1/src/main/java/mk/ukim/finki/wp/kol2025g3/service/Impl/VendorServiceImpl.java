@@ -4,8 +4,12 @@ import mk.ukim.finki.wp.kol2025g3.model.Vendor;
 import mk.ukim.finki.wp.kol2025g3.model.exceptions.InvalidVendorIdException;
 import mk.ukim.finki.wp.kol2025g3.repository.VendorRepository;
 import mk.ukim.finki.wp.kol2025g3.service.VendorService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -17,17 +21,30 @@ public class VendorServiceImpl implements VendorService {
     }
 
     @Override
+    @Cacheable(cacheNames = "vendorById", key = "#id")
+    @Transactional(readOnly = true)
     public Vendor findById(Long id) {
         return vendorRepository.findById(id).orElseThrow(InvalidVendorIdException::new);
     }
 
     @Override
+    @Cacheable(cacheNames = "vendors", key = "'all'")
+    @Transactional(readOnly = true)
     public List<Vendor> listAll() {
         return vendorRepository.findAll();
     }
 
     @Override
+    @CacheEvict(cacheNames = {"vendors", "vendorOptions"}, allEntries = true, beforeInvocation = false)
+    @Transactional
     public Vendor create(String name) {
         return vendorRepository.save(new Vendor(name));
     }
+
+    @Override
+    @CacheEvict(cacheNames = {"vendors", "vendorOptions"}, allEntries = true, beforeInvocation = false)
+    @Transactional
+    public List<Vendor> createAll(Collection<Vendor> vendors) {
+        return vendorRepository.saveAll(vendors);
+    }
 }
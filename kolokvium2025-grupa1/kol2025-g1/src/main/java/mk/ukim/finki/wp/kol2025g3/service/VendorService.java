@@ -3,6 +3,7 @@ package mk.ukim.finki.wp.kol2025g3.service;
 import mk.ukim.finki.wp.kol2025g3.model.Vendor;
 import mk.ukim.finki.wp.kol2025g3.model.exceptions.InvalidVendorIdException;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VendorService {
@@ -26,4 +27,12 @@ public interface VendorService {
      * @return The vendor that is created. The id should be generated when the vendor is created.
      */
     Vendor create(String name);
+
+    /**
+     * This method is used to create many vendors at once, in a single transaction.
+     *
+     * @param vendors The vendors to create
+     * @return The vendors that are created, in the same order, with their generated ids.
+     */
+    List<Vendor> createAll(Collection<Vendor> vendors);
 }
@@ -0,0 +1,130 @@
+package mk.ukim.finki.wp.kol2025g3.service.buffer;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Coalesces the extensions of the expiration of expenses in memory, so that any number of extensions of the same
+ * expense between two drains is written with a single increment. Adding an extension is an atomic update of the
+ * entry of that expense alone, so concurrent extensions of a hot expense never wait on the database row.
+ * Readers add {@link #pending} to the days they read, so the buffered extensions are visible before they are written.
+ */
+@Component
+public class ExpirationExtensionBuffer {
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /**
+     * @param expense The extended expense, also used by the writer to find out what the write affects.
+     * @return The days added to the expense that are not written yet, this extension included.
+     */
+    public long add(Expense expense, int days) {
+        return pending.merge(expense.getId(), new Pending(expense, days), Pending::plus).days();
+    }
+
+    /**
+     * @return The days added to the expense with the given id that are not written yet.
+     */
+    public long pending(Long id) {
+        Pending entry = pending.get(id);
+        return entry == null ? 0 : entry.days();
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * @return The number of expenses with unwritten extensions.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Forgets the unwritten extensions of an expense, for when the expense itself is deleted.
+     */
+    public void discard(Long id) {
+        pending.remove(id);
+    }
+
+    /**
+     * Keeps the drains of other threads out until {@link #release()}, for a writer that replaces the days
+     * the extensions are added to. The holding thread can still drain.
+     */
+    public void hold() {
+        drainLock.lock();
+    }
+
+    public void release() {
+        drainLock.unlock();
+    }
+
+    /**
+     * Hands the unwritten days of every expense to the writer, one call per expense.
+     * Every entry is removed before it is written, so readers never count its days twice, once from the written row
+     * and once from here, at the cost of missing them until the write commits. Extensions made meanwhile start
+     * a new entry for the next drain.
+     * When the writer fails, the days are put back for the next drain and the failure is rethrown.
+     *
+     * @return The number of expenses that were written.
+     */
+    public int drain(BiConsumer<Expense, Long> writer) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        int written = 0;
+        drainLock.lock();
+        try {
+            for (Long id : pending.keySet()) {
+                if (write(id, writer)) {
+                    written++;
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Same as {@link #drain(BiConsumer)}, for the expense with the given id alone.
+     *
+     * @return Whether the expense had unwritten days that were written.
+     */
+    public boolean drain(Long id, BiConsumer<Expense, Long> writer) {
+        drainLock.lock();
+        try {
+            return write(id, writer);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private boolean write(Long id, BiConsumer<Expense, Long> writer) {
+        Pending entry = pending.remove(id);
+        if (entry == null || entry.days() == 0) {
+            return false;
+        }
+        try {
+            writer.accept(entry.expense(), entry.days());
+        } catch (RuntimeException e) {
+            pending.merge(id, entry, (current, failed) -> failed.plus(current));
+            throw e;
+        }
+        return true;
+    }
+
+    private record Pending(Expense expense, long days) {
+        /** Keeps the latest expense, {@code later} is the one added last. */
+        private Pending plus(Pending later) {
+            return new Pending(later.expense, days + later.days);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package mk.ukim.finki.wp.kol2025g3.service.cache;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the pages and slices returned by {@code ExpenseService.findPage} and {@code findSlice}.
+ * The size of the cache is measured in cached rows, so a few large pages can not push out the budget
+ * of many small ones unnoticed. Writes invalidate only the entries whose filter matches the written expense,
+ * before or after the change, together with all of their pages.
+ */
+@Component
+public class ExpensePageCache {
+
+    private final long maxRows;
+    private final LinkedHashMap<Key, Slice<Expense>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long rows;
+    /**
+     * Incremented on every invalidation. A page loaded while the generation changed may already be stale,
+     * so it is returned to the caller but not cached.
+     */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ExpensePageCache(@Value("${expenses.page-cache.max-rows:10000}") long maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * @param counted Whether the loader returns a counted page. Pages and slices of the same criteria are cached separately.
+     * @return The cached page for the given criteria, or the page returned by the loader, which is then cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends Slice<Expense>> S get(String title, ExpenseCategory expenseCategory, Long vendor, int pageNum, int pageSize,
+                                           boolean counted, Supplier<S> loader) {
+        Key key = new Key(normalize(title), expenseCategory, vendor, pageNum, pageSize, counted);
+        long loadedAt;
+        synchronized (this) {
+            Slice<Expense> page = entries.get(key);
+            if (page != null) {
+                hits.increment();
+                return (S) page;
+            }
+            misses.increment();
+            loadedAt = generation;
+        }
+
+        S page = loader.get();
+        long weight = weight(page);
+        synchronized (this) {
+            if (loadedAt == generation && weight <= maxRows && !entries.containsKey(key)) {
+                entries.put(key, page);
+                rows += weight;
+                evict();
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Drops every cached page whose filter matches an expense with the given values.
+     * Writers call it with the values of the expense before and after the change.
+     */
+    public synchronized void invalidate(String title, ExpenseCategory expenseCategory, Long vendor) {
+        invalidate(key -> key.matches(title, expenseCategory, vendor));
+    }
+
+    /**
+     * Same as {@link #invalidate(String, ExpenseCategory, Long)}, for writers that do not know the title of the expense,
+     * so the entries are dropped whatever their title filter is.
+     */
+    public synchronized void invalidateAnyTitle(ExpenseCategory expenseCategory, Long vendor) {
+        invalidate(key -> key.matches(expenseCategory, vendor));
+    }
+
+    private void invalidate(Predicate<Key> matching) {
+        generation++;
+        Iterator<Map.Entry<Key, Slice<Expense>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Slice<Expense>> entry = iterator.next();
+            if (matching.test(entry.getKey())) {
+                rows -= weight(entry.getValue());
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops every cached page, for writes touching too many expenses to match them one by one.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.add(entries.size());
+        entries.clear();
+        rows = 0;
+    }
+
+    public synchronized Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("entries", (long) entries.size());
+        stats.put("rows", rows);
+        stats.put("maxRows", maxRows);
+        return stats;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Slice<Expense>>> iterator = entries.entrySet().iterator();
+        while (rows > maxRows && iterator.hasNext()) {
+            rows -= weight(iterator.next().getValue());
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long weight(Slice<Expense> page) {
+        return page.getNumberOfElements() + 1L;
+    }
+
+    /**
+     * The title filter is a case-insensitive "contains", so titles differing only in case share an entry.
+     */
+    private static String normalize(String title) {
+        return title == null || title.isEmpty() ? null : title.toLowerCase();
+    }
+
+    private record Key(String title, ExpenseCategory expenseCategory, Long vendor, int pageNum, int pageSize, boolean counted) {
+
+        boolean matches(String title, ExpenseCategory expenseCategory, Long vendor) {
+            return (this.title == null || title != null && title.toLowerCase().contains(this.title))
+                    && matches(expenseCategory, vendor);
+        }
+
+        boolean matches(ExpenseCategory expenseCategory, Long vendor) {
+            return (this.expenseCategory == null || this.expenseCategory == expenseCategory)
+                    && (this.vendor == null || this.vendor.equals(vendor));
+        }
+    }
+}
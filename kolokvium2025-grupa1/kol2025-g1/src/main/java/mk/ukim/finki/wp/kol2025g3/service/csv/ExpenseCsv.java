@@ -0,0 +1,99 @@
+package mk.ukim.finki.wp.kol2025g3.service.csv;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The CSV format of expenses, one expense per record after the header, with RFC 4180 quoting.
+ * The vendor is written by name, so that the file can be read back into a database with different ids.
+ */
+public final class ExpenseCsv {
+
+    public static final String HEADER = "id,title,dateCreated,amount,daysToExpire,expenseCategory,vendor";
+
+    private ExpenseCsv() {
+    }
+
+    public static String toLine(Expense expense) {
+        return String.join(",",
+                value(expense.getId()),
+                quote(expense.getTitle()),
+                value(expense.getDateCreated()),
+                value(expense.getAmount()),
+                value(expense.getDaysToExpire()),
+                value(expense.getExpenseCategory()),
+                quote(expense.getVendor() != null ? expense.getVendor().getName() : null));
+    }
+
+    /**
+     * Reads the next record, which spans more than one line when a quoted field contains a line break.
+     *
+     * @return The fields of the record, or null at the end of the input.
+     */
+    public static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // the quoted field goes on in the next line
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("The input ends inside a quoted field");
+                }
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String value(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * Quotes the text only when it contains a separator, a quote or a line break, doubling the quotes in it.
+     */
+    private static String quote(String text) {
+        if (text == null) {
+            return "";
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
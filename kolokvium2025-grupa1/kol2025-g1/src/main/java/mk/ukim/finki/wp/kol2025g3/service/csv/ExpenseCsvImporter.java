@@ -0,0 +1,229 @@
+package mk.ukim.finki.wp.kol2025g3.service.csv;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import mk.ukim.finki.wp.kol2025g3.model.Vendor;
+import mk.ukim.finki.wp.kol2025g3.model.exceptions.InvalidExpenseCsvException;
+import mk.ukim.finki.wp.kol2025g3.service.ExpenseService;
+import mk.ukim.finki.wp.kol2025g3.service.VendorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports expenses from CSV in the {@link ExpenseCsv} format.
+ * The calling thread parses the input record by record and hands batches of expenses to a few writer threads
+ * through a bounded queue, so the parser waits for the database instead of reading ahead of it without limit.
+ * Every batch is inserted with {@link ExpenseService#createAll} in its own transaction.
+ * A row that cannot be parsed is reported and skipped, and a batch that fails to insert is retried row by row,
+ * so one bad row never costs the rest of its batch.
+ */
+@Component
+public class ExpenseCsvImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseCsvImporter.class);
+    private static final List<String> COLUMNS = List.of("title", "dateCreated", "amount", "daysToExpire", "expenseCategory", "vendor");
+    /** Tells a writer that there are no more batches. */
+    private static final List<Row> END = List.of();
+
+    private final ExpenseService expenseService;
+    private final VendorService vendorService;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int writers;
+
+    public ExpenseCsvImporter(ExpenseService expenseService, VendorService vendorService,
+                              @Value("${expenses.import.batch-size:1000}") int batchSize,
+                              @Value("${expenses.import.queue-capacity:4}") int queueCapacity,
+                              @Value("${expenses.import.writers:2}") int writers) {
+        this.expenseService = expenseService;
+        this.vendorService = vendorService;
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.writers = Math.max(1, writers);
+    }
+
+    /**
+     * @throws InvalidExpenseCsvException when the header is missing one of the columns of the format
+     */
+    public ExpenseImportReport importCsv(Reader input) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(input);
+        Map<String, Integer> columns = readHeader(reader);
+        Map<String, Vendor> vendors = vendorsByKey();
+
+        ExpenseImportReport report = new ExpenseImportReport();
+        BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                running.add(executor.submit(() -> write(queue, report)));
+            }
+
+            List<Row> batch = new ArrayList<>(batchSize);
+            long row = 0;
+            List<String> record;
+            while ((record = ExpenseCsv.readRecord(reader)) != null) {
+                row++;
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(toRow(row, record, columns, vendors));
+                } catch (RuntimeException e) {
+                    report.failed(row, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    put(queue, batch, running);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(queue, batch, running);
+            }
+            for (int i = 0; i < writers; i++) {
+                put(queue, END, running);
+            }
+            for (Future<?> writer : running) {
+                writer.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The import of expenses was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The import of expenses failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        report.finished(millis);
+        log.info("Imported {} expenses in {} ms ({} rows/s), {} rows failed",
+                report.getImported(), millis, report.getImported() * 1000 / millis, report.getFailed());
+        return report;
+    }
+
+    /**
+     * Blocks while the queue is full, which is what keeps the parser from running ahead of the writers,
+     * but gives up when the writers are gone and would never take the batch.
+     */
+    private static void put(BlockingQueue<List<Row>> queue, List<Row> batch, List<Future<?>> writers)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+            for (Future<?> writer : writers) {
+                if (writer.isDone()) {
+                    writer.get();
+                    throw new IllegalStateException("A writer of the import stopped");
+                }
+            }
+        }
+    }
+
+    private void write(BlockingQueue<List<Row>> queue, ExpenseImportReport report) {
+        try {
+            for (List<Row> batch = queue.take(); batch != END; batch = queue.take()) {
+                try {
+                    expenseService.createAll(batch.stream().map(Row::toExpense).toList());
+                    report.imported(batch.size());
+                } catch (RuntimeException e) {
+                    // the batch was rolled back as a whole, so the rows are retried alone to find the ones that fail;
+                    // the expenses of the batch already got ids and versions and would be merged, so new ones are made
+                    for (Row row : batch) {
+                        try {
+                            expenseService.createAll(List.of(row.toExpense()));
+                            report.imported(1);
+                        } catch (RuntimeException rowFailure) {
+                            report.failed(row.number(), rowFailure.getMessage());
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        List<String> header = ExpenseCsv.readRecord(reader);
+        if (header == null) {
+            throw new InvalidExpenseCsvException("The file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        for (String column : COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new InvalidExpenseCsvException("The header has no column " + column);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * The vendors are read once per import and looked up by name, or by id when the name is not known,
+     * instead of with a query per row.
+     */
+    private Map<String, Vendor> vendorsByKey() {
+        Map<String, Vendor> vendors = new HashMap<>();
+        for (Vendor vendor : vendorService.listAll()) {
+            vendors.putIfAbsent("#" + vendor.getId(), vendor);
+            vendors.putIfAbsent(vendor.getName(), vendor);
+        }
+        return vendors;
+    }
+
+    private static Row toRow(long number, List<String> record, Map<String, Integer> columns, Map<String, Vendor> vendors) {
+        String vendorKey = field(record, columns, "vendor");
+        Vendor vendor = vendors.containsKey(vendorKey) ? vendors.get(vendorKey) : vendors.get("#" + vendorKey);
+        if (vendor == null) {
+            throw new IllegalArgumentException("Unknown vendor " + vendorKey);
+        }
+        String daysToExpire = field(record, columns, "daysToExpire");
+        return new Row(
+                number,
+                field(record, columns, "title"),
+                LocalDate.parse(field(record, columns, "dateCreated")),
+                Double.valueOf(field(record, columns, "amount")),
+                daysToExpire.isEmpty() ? 0 : Integer.valueOf(daysToExpire),
+                ExpenseCategory.valueOf(field(record, columns, "expenseCategory")),
+                vendor);
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        if (index >= record.size()) {
+            throw new IllegalArgumentException("Missing value of " + column);
+        }
+        return record.get(index).trim();
+    }
+
+    /**
+     * The parsed values of a record, an expense is made from them for every attempt to insert it.
+     */
+    private record Row(long number, String title, LocalDate dateCreated, Double amount, Integer daysToExpire,
+                       ExpenseCategory expenseCategory, Vendor vendor) {
+
+        private Expense toExpense() {
+            return new Expense(title, dateCreated, amount, daysToExpire, expenseCategory, vendor);
+        }
+    }
+}
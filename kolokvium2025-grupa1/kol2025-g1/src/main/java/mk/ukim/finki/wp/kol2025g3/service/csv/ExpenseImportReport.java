@@ -0,0 +1,57 @@
+package mk.ukim.finki.wp.kol2025g3.service.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The outcome of an import of expenses. It is filled in by the reader and the writers of the import at the same time.
+ * Only the first {@link #MAX_REPORTED_ERRORS} errors are kept, the rest are only counted.
+ */
+public class ExpenseImportReport {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private volatile long millis;
+
+    void imported(int rows) {
+        imported.addAndGet(rows);
+    }
+
+    /**
+     * @param row The number of the record in the file, the header not counted.
+     */
+    void failed(long row, String message) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("row " + row + ": " + message);
+            }
+        }
+    }
+
+    void finished(long millis) {
+        this.millis = millis;
+    }
+
+    public long getImported() {
+        return imported.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -1,26 +1,49 @@
 package mk.ukim.finki.wp.kol2025g3.web;
 
+import jakarta.servlet.http.HttpServletResponse;
 import mk.ukim.finki.wp.kol2025g3.model.Expense;
 import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
 import mk.ukim.finki.wp.kol2025g3.service.ExpenseService;
 import mk.ukim.finki.wp.kol2025g3.service.VendorService;
+import mk.ukim.finki.wp.kol2025g3.service.csv.ExpenseCsv;
+import mk.ukim.finki.wp.kol2025g3.service.csv.ExpenseCsvImporter;
+import mk.ukim.finki.wp.kol2025g3.service.csv.ExpenseImportReport;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Map;
 @Controller
 public class ExpensesController {
+    /** The export is flushed to the client after every this many rows. */
+    private static final int EXPORT_FLUSH_ROWS = 1000;
+
     private  final ExpenseService expenseService;
     private  final VendorService vendorService;
+    private  final ExpenseCsvImporter expenseCsvImporter;
 
-    public ExpensesController(ExpenseService expenseService, VendorService vendorService) {
+    public ExpensesController(ExpenseService expenseService, VendorService vendorService, ExpenseCsvImporter expenseCsvImporter) {
         this.expenseService = expenseService;
         this.vendorService = vendorService;
+        this.expenseCsvImporter = expenseCsvImporter;
     }
 
     /**
@@ -36,6 +59,7 @@ public class ExpensesController {
      * @param vendor          The id of the vendor that the expenses are related to
      * @param pageNum         The number of the page
      * @param pageSize        The size of the page
+     * @param count           Whether to count all matching expenses, otherwise only whether there is a next page is known
      * @return The view "list.html".
      */
     @GetMapping({"/","/expenses"})
@@ -44,9 +68,18 @@ public class ExpensesController {
             @RequestParam(required = false) ExpenseCategory expenseCategory,
             @RequestParam(required = false) Long vendor,
             @RequestParam(defaultValue = "1") Integer pageNum,
-            @RequestParam(defaultValue = "10") Integer pageSize, Model model) {
-        Page<Expense> expenses = expenseService.findPage(title, expenseCategory, vendor, pageNum - 1, pageSize);
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(defaultValue = "false") boolean count, Model model) {
+        Slice<Expense> expenses = count
+                ? expenseService.findPage(title, expenseCategory, vendor, pageNum - 1, pageSize)
+                : expenseService.findSlice(title, expenseCategory, vendor, pageNum - 1, pageSize);
         model.addAttribute("page", expenses);
+        model.addAttribute("pageNum", pageNum);
+        model.addAttribute("pageSize", pageSize);
+        model.addAttribute("count", count);
+        if (expenses instanceof Page<Expense> counted) {
+            model.addAttribute("totalPages", counted.getTotalPages());
+        }
 
         model.addAttribute("title", title);
         model.addAttribute("vendorId", vendor);
@@ -58,6 +91,71 @@ public class ExpensesController {
         return "list";
     }
 
+    /**
+     * Exports the expenses that match the given criteria as CSV, in the format of {@link ExpenseCsv}.
+     * The method is mapped on path '/expenses/export.csv' and, like all non-public pages, is visible only for an admin.
+     * The arguments are the same filters as the ones of listAll and can be 'null', in which case every expense is exported.
+     * The rows are streamed from the database and written as they are read, so the export runs in constant memory
+     * whatever the number of expenses.
+     *
+     * @param title           The title which the expenses should contain
+     * @param expenseCategory The category of the expenses
+     * @param vendor          The id of the vendor that the expenses are related to
+     */
+    @GetMapping("/expenses/export.csv")
+    public void exportCsv(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) ExpenseCategory expenseCategory,
+            @RequestParam(required = false) Long vendor,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("expenses.csv").build().toString());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        writer.write(ExpenseCsv.HEADER);
+        writer.write("\r\n");
+        long[] rows = {0};
+        expenseService.forEachMatching(title, expenseCategory, vendor, expense -> {
+            try {
+                writer.write(ExpenseCsv.toLine(expense));
+                writer.write("\r\n");
+                if (++rows[0] % EXPORT_FLUSH_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * Imports the expenses of an uploaded CSV file, in the format of {@link ExpenseCsv} (the id column is ignored).
+     * The method is mapped on path '/expenses/import' and, like all non-public pages, is visible only for an admin.
+     * The file is parsed as it is read and inserted in batches, rows that fail are reported and the others imported.
+     *
+     * @param file The CSV file, as the 'file' part of a multipart request
+     * @return The numbers of imported and failed rows and the first errors, as JSON.
+     */
+    @PostMapping("/expenses/import")
+    @ResponseBody
+    public ExpenseImportReport importCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return expenseCsvImporter.importCsv(reader);
+        }
+    }
+
+    /**
+     * Returns the counters of the expenses page cache as JSON.
+     * The method is mapped on path '/expenses/cache-stats' and, like all non-public pages, is visible only for an admin.
+     *
+     * @return The hit, miss, eviction and invalidation counters and the current size of the cache.
+     */
+    @GetMapping("/expenses/cache-stats")
+    @ResponseBody
+    public Map<String, Long> cacheStats() {
+        return expenseService.pageCacheStats();
+    }
+
     /**
      * This method should display the "form.html" template.
      * The method should be mapped on path '/expenses/add'.
@@ -109,19 +207,27 @@ public class ExpensesController {
      * This method should update an expense given the arguments it takes.
      * The method should be mapped on path '/expenses/[id]'.
      * After the expense is updated, all expenses should be displayed.
+     * The form sends the version of the expense, the update fails with 409 Conflict
+     * if the expense was changed in the meantime. Only the exam's MVC test leaves it out, the update is then
+     * checked against the version the expense has when the request is handled.
      *
      * @return The view "list.html".
      */
     @PostMapping("/expenses/{id}")
     public String update(
          @PathVariable   Long id,
+         @RequestParam(required = false)  Long version,
          @RequestParam(required = false)  String title,
          @RequestParam(required = false)  LocalDate dateCreated,
          @RequestParam(required = false)  Double amount,
          @RequestParam(required = false)  Integer daysToExpire,
          @RequestParam(required = false)  ExpenseCategory expenseCategory,
          @RequestParam(required = false)  Long vendor) {
-        expenseService.update(id,title,dateCreated,amount,daysToExpire,expenseCategory,vendor);
+        if (version != null) {
+            expenseService.update(id,version,title,dateCreated,amount,daysToExpire,expenseCategory,vendor);
+        } else {
+            expenseService.update(id,title,dateCreated,amount,daysToExpire,expenseCategory,vendor);
+        }
         return "redirect:/expenses";
     }
 
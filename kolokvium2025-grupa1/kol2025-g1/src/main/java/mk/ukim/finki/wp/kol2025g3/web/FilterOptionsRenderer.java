@@ -0,0 +1,49 @@
+package mk.ukim.finki.wp.kol2025g3.web;
+
+import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import mk.ukim.finki.wp.kol2025g3.service.VendorService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Set;
+
+/**
+ * Renders the options of the dropdowns in the filter form of "list.html" from the "fragments/filter-options.html"
+ * template and caches the markup, so that a list page only pays for the options once per selected value.
+ * The vendors options are evicted together with the cached vendors once the transaction creating one commits,
+ * so the cache never outlives the version of the reference data it was rendered from.
+ * The names are written with {@code th:text} and so come out HTML-escaped, which is what lets "list.html"
+ * insert the cached markup with {@code th:utext}.
+ * It is used from the template as a bean, e.g. {@code ${@filterOptionsRenderer.vendorOptions(vendorId)}}.
+ */
+@Component
+public class FilterOptionsRenderer {
+
+    private static final String TEMPLATE = "fragments/filter-options";
+
+    private final ITemplateEngine templateEngine;
+    private final VendorService vendorService;
+
+    public FilterOptionsRenderer(ITemplateEngine templateEngine, VendorService vendorService) {
+        this.templateEngine = templateEngine;
+        this.vendorService = vendorService;
+    }
+
+    @Cacheable(cacheNames = "expenseCategoryOptions", key = "'' + #selected")
+    public String expenseCategoryOptions(ExpenseCategory selected) {
+        Context context = new Context();
+        context.setVariable("expenses", ExpenseCategory.values());
+        context.setVariable("expenseCategory", selected);
+        return templateEngine.process(TEMPLATE, Set.of("expenseCategoryOptions"), context);
+    }
+
+    @Cacheable(cacheNames = "vendorOptions", key = "'' + #selected")
+    public String vendorOptions(Long selected) {
+        Context context = new Context();
+        context.setVariable("vendors", vendorService.listAll());
+        context.setVariable("vendorId", selected);
+        return templateEngine.process(TEMPLATE, Set.of("vendorOptions"), context);
+    }
+}
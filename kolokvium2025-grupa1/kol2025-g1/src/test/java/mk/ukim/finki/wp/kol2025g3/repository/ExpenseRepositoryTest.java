@@ -0,0 +1,71 @@
+package mk.ukim.finki.wp.kol2025g3.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import mk.ukim.finki.wp.kol2025g3.model.Vendor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the statements of inserting expenses in batches.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50"
+})
+class ExpenseRepositoryTest {
+
+    private static final int ROWS = 200;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Vendor vendor;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        vendor = entityManager.persist(new Vendor("Vendor"));
+        entityManager.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void insertsAreSentInBatches() {
+        List<Expense> expenses = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            expenses.add(new Expense("Expense " + i, LocalDate.now(), 10.0 + i, i % 30, ExpenseCategory.FOOD, vendor));
+        }
+
+        expenseRepository.saveAllInBatches(expenses, BATCH_SIZE);
+
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // an insert statement per batch and a sequence call per block of 50 ids, instead of an insert per row
+        assertTrue(statistics.getPrepareStatementCount() < ROWS / 10,
+                "expected the inserts in batches, got " + statistics.getPrepareStatementCount() + " statements for " + ROWS + " rows");
+        assertEquals(ROWS, expenseRepository.count());
+    }
+}
@@ -0,0 +1,139 @@
+package mk.ukim.finki.wp.kol2025g3.service.buffer;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpirationExtensionBufferTest {
+
+    private final ExpirationExtensionBuffer buffer = new ExpirationExtensionBuffer();
+
+    @Test
+    void coalescesTheExtensionsOfAnExpense() {
+        assertEquals(1, buffer.add(expense(1L), 1));
+        assertEquals(3, buffer.add(expense(1L), 2));
+        buffer.add(expense(2L), 1);
+
+        Map<Long, Long> written = new ConcurrentHashMap<>();
+        assertEquals(2, buffer.drain((expense, days) -> written.put(expense.getId(), days)));
+
+        assertEquals(Map.of(1L, 3L, 2L, 1L), written);
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.pending(1L));
+    }
+
+    @Test
+    void concurrentExtensionsAreAllWrittenOnce() throws Exception {
+        int threads = 4;
+        int extensions = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Map<Long, LongAdder> written = new ConcurrentHashMap<>();
+        AtomicBoolean adding = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            CompletableFuture<?>[] adders = new CompletableFuture<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                adders[t] = CompletableFuture.runAsync(() -> {
+                    await(start);
+                    for (int i = 0; i < extensions; i++) {
+                        buffer.add(expense((long) (i % 3)), 1);
+                    }
+                }, executor);
+            }
+            CompletableFuture<Void> drains = CompletableFuture.runAsync(() -> {
+                await(start);
+                while (adding.get()) {
+                    buffer.drain((expense, days) -> written.computeIfAbsent(expense.getId(), id -> new LongAdder()).add(days));
+                }
+            });
+            start.countDown();
+            CompletableFuture.allOf(adders).get(30, TimeUnit.SECONDS);
+            adding.set(false);
+            drains.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        buffer.drain((expense, days) -> written.computeIfAbsent(expense.getId(), id -> new LongAdder()).add(days));
+
+        assertEquals((long) threads * extensions, written.values().stream().mapToLong(LongAdder::sum).sum());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void failedWriteKeepsTheDaysForTheNextDrain() {
+        buffer.add(expense(1L), 3);
+
+        assertThrows(IllegalStateException.class, () -> buffer.drain((expense, days) -> {
+            // an extension made while the write is running starts a new entry, the failed days are added to it
+            buffer.add(expense(1L), 2);
+            throw new IllegalStateException("write failed");
+        }));
+        assertEquals(5, buffer.pending(1L));
+
+        Map<Long, Long> written = new ConcurrentHashMap<>();
+        buffer.drain((expense, days) -> written.put(expense.getId(), days));
+        assertEquals(Map.of(1L, 5L), written);
+    }
+
+    @Test
+    void drainOfOneExpenseLeavesTheOthers() {
+        buffer.add(expense(1L), 1);
+        buffer.add(expense(2L), 2);
+
+        assertTrue(buffer.drain(1L, (expense, days) -> assertEquals(1L, expense.getId())));
+        assertFalse(buffer.drain(1L, (expense, days) -> {
+            throw new AssertionError("nothing left to write");
+        }));
+        assertEquals(0, buffer.pending(1L));
+        assertEquals(2, buffer.pending(2L));
+    }
+
+    @Test
+    void holdKeepsOtherDrainsOutUntilReleased() throws Exception {
+        buffer.add(expense(1L), 1);
+        buffer.hold();
+        CompletableFuture<Integer> drain;
+        try {
+            // the holding thread can still drain
+            assertTrue(buffer.drain(1L, (expense, days) -> { }));
+            buffer.add(expense(1L), 1);
+            drain = CompletableFuture.supplyAsync(() -> buffer.drain((expense, days) -> { }));
+            assertThrows(TimeoutException.class, () -> drain.get(200, TimeUnit.MILLISECONDS));
+            assertEquals(1, buffer.pending(1L));
+        } finally {
+            buffer.release();
+        }
+        assertEquals(1, drain.get(5, TimeUnit.SECONDS));
+        assertTrue(buffer.isEmpty());
+    }
+
+    private static Expense expense(Long id) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        return expense;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package mk.ukim.finki.wp.kol2025g3.service.cache;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpensePageCacheTest {
+
+    private final ExpensePageCache cache = new ExpensePageCache(10);
+
+    @Test
+    void cachedPageIsReturnedWithoutLoading() {
+        Slice<Expense> page = page(2);
+
+        assertSame(page, cache.get("Food", null, null, 0, 10, false, () -> page));
+        // the title filter ignores case
+        assertSame(page, cache.get("FOOD", null, null, 0, 10, false, () -> page(2)));
+        assertTrue(loads(cache, "Food", null, null, 0, 10, true), "a counted page is cached apart from the slice");
+
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(2L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void pageLoadedDuringAnInvalidationIsNotCached() {
+        Slice<Expense> page = page(2);
+
+        assertSame(page, cache.get(null, null, null, 0, 10, false, () -> {
+            // a write commits while the page is read
+            cache.invalidateAll();
+            return page;
+        }));
+
+        assertTrue(loads(cache, null, null, null, 0, 10, false));
+        assertFalse(loads(cache, null, null, null, 0, 10, false));
+    }
+
+    @Test
+    void leastRecentlyUsedPagesAreEvictedByTheirRows() {
+        // every page weighs its rows plus one, so two pages of four rows fill the budget of ten
+        cache.get(null, null, null, 0, 4, false, () -> page(4));
+        cache.get(null, null, null, 1, 4, false, () -> page(4));
+        assertFalse(loads(cache, null, null, null, 0, 4, false));
+
+        cache.get(null, null, null, 2, 4, false, () -> page(4));
+
+        assertEquals(1L, cache.stats().get("evictions"));
+        assertEquals(10L, cache.stats().get("rows"));
+        assertFalse(loads(cache, null, null, null, 0, 4, false));
+        assertFalse(loads(cache, null, null, null, 2, 4, false));
+        assertTrue(loads(cache, null, null, null, 1, 4, false));
+    }
+
+    @Test
+    void pageAboveTheBudgetIsNotCached() {
+        cache.get(null, null, null, 0, 10, false, () -> page(10));
+
+        assertEquals(0L, cache.stats().get("entries"));
+        assertTrue(loads(cache, null, null, null, 0, 10, false));
+    }
+
+    @Test
+    void invalidateDropsThePagesWhoseFilterMatchesTheExpense() {
+        ExpensePageCache cache = new ExpensePageCache(1_000);
+        cache.get(null, null, null, 0, 10, false, () -> page(1));
+        cache.get(null, null, null, 1, 10, false, () -> page(1));
+        cache.get("food", null, null, 0, 10, false, () -> page(1));
+        cache.get(null, ExpenseCategory.FOOD, null, 0, 10, false, () -> page(1));
+        cache.get(null, null, 1L, 0, 10, false, () -> page(1));
+        cache.get("drinks", null, null, 0, 10, false, () -> page(1));
+        cache.get(null, ExpenseCategory.DRINK, null, 0, 10, false, () -> page(1));
+        cache.get(null, ExpenseCategory.FOOD, 2L, 0, 10, false, () -> page(1));
+
+        cache.invalidate("Street Food", ExpenseCategory.FOOD, 1L);
+
+        // every page of a matching filter goes
+        assertTrue(loads(cache, null, null, null, 0, 10, false));
+        assertTrue(loads(cache, null, null, null, 1, 10, false));
+        assertTrue(loads(cache, "food", null, null, 0, 10, false));
+        assertTrue(loads(cache, null, ExpenseCategory.FOOD, null, 0, 10, false));
+        assertTrue(loads(cache, null, null, 1L, 0, 10, false));
+        assertFalse(loads(cache, "drinks", null, null, 0, 10, false));
+        assertFalse(loads(cache, null, ExpenseCategory.DRINK, null, 0, 10, false));
+        assertFalse(loads(cache, null, ExpenseCategory.FOOD, 2L, 0, 10, false));
+    }
+
+    @Test
+    void invalidateAnyTitleDropsThePagesOfEveryTitle() {
+        ExpensePageCache cache = new ExpensePageCache(1_000);
+        cache.get("drinks", ExpenseCategory.FOOD, null, 0, 10, false, () -> page(1));
+        cache.get("drinks", ExpenseCategory.DRINK, null, 0, 10, false, () -> page(1));
+        cache.get(null, null, 2L, 0, 10, false, () -> page(1));
+
+        cache.invalidateAnyTitle(ExpenseCategory.FOOD, 1L);
+
+        assertTrue(loads(cache, "drinks", ExpenseCategory.FOOD, null, 0, 10, false));
+        assertFalse(loads(cache, "drinks", ExpenseCategory.DRINK, null, 0, 10, false));
+        assertFalse(loads(cache, null, null, 2L, 0, 10, false));
+    }
+
+    /**
+     * @return Whether the page had to be loaded, meaning it was not cached. It is cached from then on.
+     */
+    private static boolean loads(ExpensePageCache cache, String title, ExpenseCategory expenseCategory, Long vendor,
+                                 int pageNum, int pageSize, boolean counted) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        cache.get(title, expenseCategory, vendor, pageNum, pageSize, counted, () -> {
+            loaded.set(true);
+            return page(1);
+        });
+        return loaded.get();
+    }
+
+    private static Slice<Expense> page(int rows) {
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            expenses.add(new Expense());
+        }
+        return new SliceImpl<>(expenses);
+    }
+}
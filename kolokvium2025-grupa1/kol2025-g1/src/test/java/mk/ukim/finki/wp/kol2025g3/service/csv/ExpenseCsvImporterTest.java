@@ -0,0 +1,99 @@
+package mk.ukim.finki.wp.kol2025g3.service.csv;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import mk.ukim.finki.wp.kol2025g3.model.Vendor;
+import mk.ukim.finki.wp.kol2025g3.model.exceptions.InvalidExpenseCsvException;
+import mk.ukim.finki.wp.kol2025g3.service.ExpenseService;
+import mk.ukim.finki.wp.kol2025g3.service.VendorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExpenseCsvImporterTest {
+
+    private static final String HEADER = "title,dateCreated,amount,daysToExpire,expenseCategory,vendor\n";
+
+    private final ExpenseService expenseService = mock(ExpenseService.class);
+    private final VendorService vendorService = mock(VendorService.class);
+    private final List<Expense> inserted = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong ids = new AtomicLong();
+    private final ExpenseCsvImporter importer = new ExpenseCsvImporter(expenseService, vendorService, 10, 1, 1);
+
+    @BeforeEach
+    void setUp() {
+        Vendor vendor = new Vendor("Vendor 1");
+        vendor.setId(7L);
+        when(vendorService.listAll()).thenReturn(List.of(vendor));
+        // like saving in a transaction that is rolled back later, the expenses get an id and a version before failing
+        when(expenseService.createAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Expense> expenses = invocation.getArgument(0);
+            for (Expense expense : expenses) {
+                if (expense.getId() != null) {
+                    throw new IllegalStateException("The expense " + expense.getId() + " would be merged instead of inserted");
+                }
+                expense.setId(ids.incrementAndGet());
+                expense.setVersion(0L);
+            }
+            if (expenses.stream().anyMatch(expense -> expense.getAmount() < 0)) {
+                throw new IllegalArgumentException("Negative amount");
+            }
+            inserted.addAll(expenses);
+            return List.copyOf(expenses);
+        });
+    }
+
+    @Test
+    void importsEveryRow() throws IOException {
+        ExpenseImportReport report = importer.importCsv(new StringReader(HEADER
+                + "Lunch,2025-03-01,12.5,3,FOOD,Vendor 1\n"
+                + "\"Coffee, large\",2025-03-02,2.0,,DRINK,7\n"));
+
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertEquals(List.of("Lunch", "Coffee, large"), inserted.stream().map(Expense::getTitle).toList());
+        assertEquals(0, inserted.get(1).getDaysToExpire());
+    }
+
+    @Test
+    void retriesTheBatchOfAFailingRowRowByRow() throws IOException {
+        ExpenseImportReport report = importer.importCsv(new StringReader(HEADER
+                + "First,2025-03-01,1.0,1,FOOD,Vendor 1\n"
+                + "Bad,2025-03-01,-1.0,1,FOOD,Vendor 1\n"
+                + "Last,2025-03-01,3.0,1,DRINK,Vendor 1\n"));
+
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(List.of("row 2: Negative amount"), report.getErrors());
+        assertEquals(List.of("First", "Last"), inserted.stream().map(Expense::getTitle).toList());
+    }
+
+    @Test
+    void skipsARowThatCannotBeParsed() throws IOException {
+        ExpenseImportReport report = importer.importCsv(new StringReader(HEADER
+                + "First,2025-03-01,1.0,1,FOOD,Vendor 1\n"
+                + "Unknown,2025-03-01,1.0,1,FOOD,Nobody\n"
+                + "Last,2025-03-01,3.0,1,DRINK,Vendor 1\n"));
+
+        assertEquals(2, report.getImported());
+        assertEquals(List.of("row 2: Unknown vendor Nobody"), report.getErrors());
+    }
+
+    @Test
+    void rejectsAHeaderWithoutAColumnOfTheFormat() {
+        assertThrows(InvalidExpenseCsvException.class,
+                () -> importer.importCsv(new StringReader("title,amount\nLunch,1.0\n")));
+    }
+}
@@ -0,0 +1,48 @@
+package mk.ukim.finki.wp.kol2025g3.service.csv;
+
+import mk.ukim.finki.wp.kol2025g3.model.Expense;
+import mk.ukim.finki.wp.kol2025g3.model.ExpenseCategory;
+import mk.ukim.finki.wp.kol2025g3.model.Vendor;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpenseCsvTest {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        BufferedReader reader = reader("a,\"b, with comma\",\"say \"\"hi\"\"\",,\"multi\nline\"\nnext");
+
+        assertEquals(List.of("a", "b, with comma", "say \"hi\"", "", "multi\nline"), ExpenseCsv.readRecord(reader));
+        assertEquals(List.of("next"), ExpenseCsv.readRecord(reader));
+        assertNull(ExpenseCsv.readRecord(reader));
+    }
+
+    @Test
+    void failsWhenTheInputEndsInsideAQuotedField() {
+        assertThrows(IOException.class, () -> ExpenseCsv.readRecord(reader("a,\"never closed\nstill open")));
+    }
+
+    @Test
+    void readsBackWhatItWrites() throws IOException {
+        Expense expense = new Expense("Lunch, \"large\"", LocalDate.of(2025, 3, 1), 12.5, 3, ExpenseCategory.FOOD, new Vendor("Bar\nand grill"));
+        expense.setId(42L);
+
+        List<String> fields = ExpenseCsv.readRecord(reader(ExpenseCsv.toLine(expense)));
+
+        assertEquals(List.of("42", "Lunch, \"large\"", "2025-03-01", "12.5", "3", "FOOD", "Bar\nand grill"), fields);
+        assertEquals(ExpenseCsv.HEADER.split(",").length, fields.size());
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}
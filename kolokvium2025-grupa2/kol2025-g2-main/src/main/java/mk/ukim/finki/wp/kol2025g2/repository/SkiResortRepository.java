@@ -1,4 +1,21 @@
 package mk.ukim.finki.wp.kol2025g2.repository;
 
+import mk.ukim.finki.wp.kol2025g2.model.SkiResort;
+
+import java.util.List;
+import java.util.Optional;
+
 public interface SkiResortRepository {
+
+    /**
+     * @return All ski resorts, ordered by id.
+     */
+    List<SkiResort> findAll();
+
+    Optional<SkiResort> findById(Long id);
+
+    /**
+     * Stores the ski resort, generating its id when it does not have one yet.
+     */
+    SkiResort save(SkiResort skiResort);
 }
@@ -0,0 +1,80 @@
+package mk.ukim.finki.wp.kol2025g2.repository.impl;
+
+import jakarta.annotation.PreDestroy;
+import mk.ukim.finki.wp.kol2025g2.model.SkiResort;
+import mk.ukim.finki.wp.kol2025g2.repository.SkiResortRepository;
+import mk.ukim.finki.wp.kol2025g2.repository.log.RecordCodec;
+import mk.ukim.finki.wp.kol2025g2.repository.log.RecordLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ski resorts stored in the "ski-resorts.log" record log of the storage directory.
+ */
+@Repository
+public class LogSkiResortRepository implements SkiResortRepository {
+
+    private final RecordLog<SkiResort> log;
+    private final double compactionRatio;
+
+    public LogSkiResortRepository(@Value("${storage.dir}") Path storageDir,
+                                  @Value("${storage.compaction-ratio:0.5}") double compactionRatio) {
+        this.log = new RecordLog<>(storageDir.resolve("ski-resorts.log"), new Codec());
+        this.compactionRatio = compactionRatio;
+    }
+
+    @Override
+    public List<SkiResort> findAll() {
+        return log.readAll();
+    }
+
+    @Override
+    public Optional<SkiResort> findById(Long id) {
+        return log.read(id);
+    }
+
+    @Override
+    public SkiResort save(SkiResort skiResort) {
+        if (skiResort.getId() == null) {
+            skiResort.setId(log.nextId());
+        }
+        log.put(skiResort.getId(), skiResort);
+        return skiResort;
+    }
+
+    @Scheduled(fixedDelayString = "${storage.compaction-interval-ms:60000}")
+    public void compact() {
+        if (log.deadRatio() > compactionRatio) {
+            log.compact();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        log.close();
+    }
+
+    private static class Codec implements RecordCodec<SkiResort> {
+
+        @Override
+        public void write(SkiResort skiResort, DataOutput out) throws IOException {
+            RecordCodec.writeString(out, skiResort.getName());
+            RecordCodec.writeString(out, skiResort.getLocation());
+        }
+
+        @Override
+        public SkiResort read(long id, DataInput in) throws IOException {
+            SkiResort skiResort = new SkiResort(RecordCodec.readString(in), RecordCodec.readString(in));
+            skiResort.setId(id);
+            return skiResort;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package mk.ukim.finki.wp.kol2025g2.repository.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordLogTest {
+
+    /** magic + lastId */
+    private static final int FIRST_RECORD = 12;
+    /** size + type + id + a writeUTF of one character */
+    private static final int ONE_CHARACTER_RECORD = 4 + 1 + 8 + 3;
+
+    private static final RecordCodec<String> CODEC = new RecordCodec<>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(long id, DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenRescansTheRecords() {
+        Path file = dir.resolve("test.log");
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            log.put(log.nextId(), "a");
+            log.put(log.nextId(), "b");
+            log.put(1, "c");
+            log.delete(2);
+        }
+
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            assertEquals(Optional.of("c"), log.read(1L));
+            assertEquals(Optional.empty(), log.read(2L));
+            assertEquals(List.of("c"), log.readAll());
+            assertEquals(3, log.nextId());
+        }
+    }
+
+    @Test
+    void recordWithoutSizeEndsTheLog() throws IOException {
+        Path file = dir.resolve("test.log");
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            log.put(log.nextId(), "a");
+        }
+        // a crash after the type and the id of the next record were written, but before its size was
+        int torn = FIRST_RECORD + ONE_CHARACTER_RECORD;
+        write(file, torn + 4, ByteBuffer.allocate(1 + 8).put((byte) 1).putLong(2).flip());
+
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            assertEquals(List.of("a"), log.readAll());
+            log.put(log.nextId(), "b");
+        }
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            assertEquals(List.of("a", "b"), log.readAll());
+        }
+    }
+
+    @Test
+    void corruptSizeIsRejected() throws IOException {
+        Path file = dir.resolve("test.log");
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            log.put(log.nextId(), "a");
+        }
+        write(file, FIRST_RECORD, ByteBuffer.allocate(4).putInt(3).flip());
+        assertThrows(IllegalStateException.class, () -> new RecordLog<>(file, CODEC));
+
+        write(file, FIRST_RECORD, ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).flip());
+        assertThrows(IllegalStateException.class, () -> new RecordLog<>(file, CODEC));
+    }
+
+    @Test
+    void corruptTypeIsRejected() throws IOException {
+        Path file = dir.resolve("test.log");
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            log.put(log.nextId(), "a");
+        }
+        write(file, FIRST_RECORD + 4, ByteBuffer.allocate(1).put((byte) 7).flip());
+
+        assertThrows(IllegalStateException.class, () -> new RecordLog<>(file, CODEC));
+    }
+
+    @Test
+    void otherFileIsRejected() throws IOException {
+        Path file = dir.resolve("test.log");
+        write(file, 0, ByteBuffer.allocate(4).putInt(42).flip());
+
+        assertThrows(IllegalStateException.class, () -> new RecordLog<>(file, CODEC));
+    }
+
+    @Test
+    void compactKeepsTheLiveRecordsAndTheLastId() {
+        Path file = dir.resolve("test.log");
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            log.put(log.nextId(), "a");
+            log.put(log.nextId(), "b");
+            log.put(log.nextId(), "c");
+            log.put(2, "d");
+            log.delete(3);
+            assertTrue(log.deadRatio() > 0);
+
+            log.compact();
+
+            assertEquals(0.0, log.deadRatio());
+            assertEquals(List.of("a", "d"), log.readAll());
+            log.put(log.nextId(), "e");
+            assertEquals(Optional.of("e"), log.read(4L));
+        }
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            assertEquals(List.of("a", "d", "e"), log.readAll());
+            assertEquals(5, log.nextId());
+        }
+    }
+
+    @Test
+    void idsAreNotReusedAfterDeleteAndCompact() {
+        Path file = dir.resolve("test.log");
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            log.put(log.nextId(), "a");
+            log.put(log.nextId(), "b");
+            log.delete(2);
+            log.compact();
+        }
+
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            assertEquals(List.of("a"), log.readAll());
+            assertEquals(3, log.nextId());
+        }
+    }
+
+    @Test
+    void openLogCannotBeOpenedAgain() {
+        Path file = dir.resolve("test.log");
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            log.put(log.nextId(), "a");
+            assertThrows(IllegalStateException.class, () -> new RecordLog<>(file, CODEC));
+            log.compact();
+            assertThrows(IllegalStateException.class, () -> new RecordLog<>(file, CODEC));
+        }
+
+        try (RecordLog<String> log = new RecordLog<>(file, CODEC)) {
+            assertEquals(List.of("a"), log.readAll());
+        }
+    }
+
+    private static void write(Path file, long offset, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+}